@@ -0,0 +1,33 @@
+package com.offerhunt.auth.api.validation;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+public class StrongPasswordValidatorBenchmark {
+
+    // сильный; без спецсимвола (проверяется вся строка); не-ASCII буквы
+    @Param({"Str0ng-Passw0rd!", "weakpassword12345678", "Пароль-На-Кириллице-1"})
+    public String password;
+
+    private final StrongPasswordValidator validator = new StrongPasswordValidator();
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(password, null);
+    }
+}
@@ -0,0 +1,120 @@
+package com.offerhunt.auth.config;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.offerhunt.auth.domain.dao.AccessRevocationDao;
+import com.offerhunt.auth.domain.revocation.AccessTokenDenylist;
+import com.offerhunt.auth.domain.revocation.RevocationCheckingJwtDecoder;
+import com.offerhunt.auth.domain.token.CachingJwtDecoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+/**
+ * Проверка access-токена так же, как в {@link SecurityResourceConfig#jwtDecoder}:
+ * подпись RS256 + стандартные валидаторы с issuer + {@link AudienceValidator}.
+ * Отдельно — только цепочка валидаторов на уже разобранном {@link Jwt} и повторная проверка
+ * того же токена через {@link CachingJwtDecoder}, в том числе с проверкой отзыва, как в рабочей
+ * конфигурации ({@link RevocationCheckingJwtDecoder}, в списке отзывов 10 000 чужих токенов).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+public class JwtDecoderBenchmark {
+
+    private static final String ISSUER = "http://localhost:8080";
+    private static final String AUDIENCE = "offerhunt-api";
+
+    private NimbusJwtDecoder decoder;
+    private CachingJwtDecoder cachingDecoder;
+    private RevocationCheckingJwtDecoder revocationCheckingDecoder;
+    private DelegatingOAuth2TokenValidator<Jwt> validator;
+    private String token;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() throws Exception {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("bench").generate();
+        validator = new DelegatingOAuth2TokenValidator<>(
+            JwtValidators.createDefaultWithIssuer(ISSUER),
+            new AudienceValidator(AUDIENCE)
+        );
+        decoder = NimbusJwtDecoder.withPublicKey(key.toRSAPublicKey()).build();
+        decoder.setJwtValidator(validator);
+
+        Instant now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+            .issuer(ISSUER)
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(3600))
+            .subject("00000000-0000-0000-0000-000000000001")
+            .id(UUID.randomUUID().toString())
+            .audience(List.of(AUDIENCE))
+            .claim("scope", "api")
+            .claim("role", "USER")
+            .build();
+        token = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)))
+            .encode(JwtEncoderParameters.from(claims))
+            .getTokenValue();
+        jwt = decoder.decode(token);
+        cachingDecoder = new CachingJwtDecoder(decoder, 10_000);
+        cachingDecoder.decode(token);
+
+        // отзывы кладутся только в память, БД не нужна
+        AccessRevocationDao noDb = new AccessRevocationDao(null) {
+            @Override
+            public void upsert(String key, Instant notBefore, Instant expiresAt, Instant revokedAt) {
+            }
+        };
+        AccessTokenDenylist denylist = new AccessTokenDenylist(noDb, new SimpleMeterRegistry(), 100_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            denylist.revokeToken(UUID.randomUUID().toString(), now.plusSeconds(3600));
+        }
+        revocationCheckingDecoder = new RevocationCheckingJwtDecoder(cachingDecoder, denylist);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return decoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeCached() {
+        return cachingDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeCachedWithRevocationCheck() {
+        return revocationCheckingDecoder.decode(token);
+    }
+
+    @Benchmark
+    public OAuth2TokenValidatorResult validateOnly() {
+        return validator.validate(jwt);
+    }
+}
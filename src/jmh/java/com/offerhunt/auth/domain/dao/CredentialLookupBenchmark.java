@@ -0,0 +1,129 @@
+package com.offerhunt.auth.domain.dao;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Латентность поиска пользователя при логине на большой таблице: прежний запрос сущности
+ * ({@code email = ?}, все колонки) против проекции {@link UserCredentials} по {@code LOWER(email)}.
+ *
+ * <p>Нужен Postgres со схемой после Flyway (DB_URL/DB_USER/DB_PASS как у приложения).
+ * Если в таблице меньше {@code users} строк — досеивает синтетических пользователей
+ * {@code bench-N@bench.local}. SQL повторяет то, что генерирует Hibernate для обоих запросов.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class CredentialLookupBenchmark {
+
+    private static final String ENTITY_SQL = """
+        select id, avatar_content_type, avatar_key, avatar_updated_at, bio, created_at, email,
+               email_verified_at, full_name, global_role, last_login_at, password_hash, updated_at
+        from auth.auth_users
+        where email = ?
+        """;
+
+    private static final String CREDENTIALS_SQL = """
+        select id, password_hash, global_role
+        from auth.auth_users
+        where lower(email) = lower(?)
+        """;
+
+    @Param({"3000000"})
+    public int users;
+
+    private Connection connection;
+    private PreparedStatement entityLookup;
+    private PreparedStatement credentialsLookup;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+            env("DB_URL", "jdbc:postgresql://localhost:5432/authdb"),
+            env("DB_USER", "auth_user"),
+            env("DB_PASS", "auth_pass")
+        );
+        seed();
+        entityLookup = connection.prepareStatement(ENTITY_SQL);
+        credentialsLookup = connection.prepareStatement(CREDENTIALS_SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public Object entityByEmail() throws SQLException {
+        entityLookup.setString(1, randomEmail());
+        try (ResultSet rs = entityLookup.executeQuery()) {
+            return rs.next() ? rs.getObject(1) : null;
+        }
+    }
+
+    @Benchmark
+    public Object credentialsByLowerEmail() throws SQLException {
+        credentialsLookup.setString(1, randomEmail());
+        try (ResultSet rs = credentialsLookup.executeQuery()) {
+            return rs.next() ? rs.getObject(1) : null;
+        }
+    }
+
+    private String randomEmail() {
+        return "bench-" + ThreadLocalRandom.current().nextInt(1, users + 1) + "@bench.local";
+    }
+
+    private void seed() throws SQLException {
+        int existing;
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("select count(*) from auth.auth_users where email like 'bench-%'")) {
+            rs.next();
+            existing = rs.getInt(1);
+        }
+        if (existing >= users) {
+            return;
+        }
+        try (PreparedStatement insert = connection.prepareStatement("""
+                insert into auth.auth_users (id, email, password_hash, full_name, bio)
+                select gen_random_uuid(), 'bench-' || g || '@bench.local',
+                       '{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3p0mYxG8a4N1XzW1a1s5xGm',
+                       'Bench User ' || g, repeat('bio ', 64)
+                from generate_series(?, ?) g
+                on conflict do nothing
+                """)) {
+            insert.setInt(1, existing + 1);
+            insert.setInt(2, users);
+            insert.executeUpdate();
+        }
+        try (Statement st = connection.createStatement()) {
+            st.execute("analyze auth.auth_users");
+        }
+    }
+
+    private static String env(String name, String def) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? def : value;
+    }
+}
@@ -0,0 +1,62 @@
+package com.offerhunt.auth.domain.password;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Пропускная способность проверки пароля: BCrypt против Argon2id на сопоставимых уровнях
+ * (рекомендации OWASP: bcrypt cost 10 ≈ argon2id m=19MiB,t=2 ≈ m=46MiB,t=1).
+ * Память на операцию смотрим в {@code gc.alloc.rate.norm} (профайлер gc включён в build.gradle).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "Benchmark-Pass1!";
+
+    @Param({
+        "bcrypt-10", "bcrypt-11", "bcrypt-12", "bcrypt-13",
+        "argon2id-m19-t2", "argon2id-m46-t1", "argon2id-m64-t3"
+    })
+    public String config;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = switch (config) {
+            case "bcrypt-10" -> new BCryptPasswordEncoder(10);
+            case "bcrypt-11" -> new BCryptPasswordEncoder(11);
+            case "bcrypt-12" -> new BCryptPasswordEncoder(12);
+            case "bcrypt-13" -> new BCryptPasswordEncoder(13);
+            case "argon2id-m19-t2" -> new Argon2PasswordEncoder(16, 32, 1, 19 * 1024, 2);
+            case "argon2id-m46-t1" -> new Argon2PasswordEncoder(16, 32, 1, 46 * 1024, 1);
+            case "argon2id-m64-t3" -> new Argon2PasswordEncoder(16, 32, 1, 64 * 1024, 3);
+            default -> throw new IllegalArgumentException(config);
+        };
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,37 @@
+package com.offerhunt.auth.domain.service;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Генерация токена сброса пароля и его SHA-256 хеш для хранения в БД.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+public class ResetTokenBenchmark {
+
+    private final RandomPasswordResetTokenGenerator generator = new RandomPasswordResetTokenGenerator();
+    private final String rawToken = generator.generateToken();
+
+    @Benchmark
+    public String generateToken() {
+        return generator.generateToken();
+    }
+
+    @Benchmark
+    public String hashToken() {
+        return PasswordRecoveryService.hashToken(rawToken);
+    }
+}
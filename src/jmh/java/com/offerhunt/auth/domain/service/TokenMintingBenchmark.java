@@ -0,0 +1,101 @@
+package com.offerhunt.auth.domain.service;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.offerhunt.auth.api.dto.TokenResponse;
+import com.offerhunt.auth.domain.metrics.AuthStageRecorder;
+import com.offerhunt.auth.domain.refresh.RefreshTokenStore;
+import com.offerhunt.auth.domain.token.SigningAlgorithm;
+import com.offerhunt.auth.domain.token.TokenMinter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+/**
+ * Выпуск пары access + refresh токенов ({@link UserService#mintTokens}) через {@link TokenMinter}
+ * против прежнего пути {@code JwtClaimsSet} + {@code NimbusJwtEncoder}. Аллокации смотреть с {@code -prof gc}.
+ * Зависимости, не участвующие в выпуске, не нужны; выдача refresh-handle идёт в памяти, до БД не доходит.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+public class TokenMintingBenchmark {
+
+    private static final String ISSUER = "http://localhost:8080";
+    private static final String AUDIENCE = "offerhunt-api";
+
+    // NimbusJwtEncoder не выбирает OKP-ключи, поэтому сравнение только на RSA и EC
+    @Param({"RS256", "ES256"})
+    public SigningAlgorithm algorithm;
+
+    private UserService service;
+    private NimbusJwtEncoder encoder;
+    private JwsHeader header;
+    private UUID userId;
+
+    @Setup
+    public void setUp() {
+        JWK key = algorithm.generateKey("bench");
+        service = new UserService(
+            null, null, null, null, new AuthStageRecorder(new SimpleMeterRegistry()),
+            new TokenMinter(key, ISSUER, AUDIENCE),
+            new RefreshTokenStore(null, new SimpleMeterRegistry(), 100_000), null, null, null, null, false
+        );
+        encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+        header = JwsHeader.with(algorithm.jwsHeaderAlgorithm()).build();
+        userId = UUID.randomUUID();
+    }
+
+    @Benchmark
+    public TokenResponse mintTokens() {
+        return service.mintTokens(userId, "USER");
+    }
+
+    @Benchmark
+    public TokenResponse mintTokensJwtEncoder() {
+        Instant now = Instant.now();
+        var access = JwtClaimsSet.builder()
+            .issuer(ISSUER)
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(900))
+            .id(UUID.randomUUID().toString())
+            .subject(userId.toString())
+            .audience(List.of(AUDIENCE))
+            .claim("scope", "api")
+            .claim("role", "USER")
+            .build();
+        var refresh = JwtClaimsSet.builder()
+            .issuer(ISSUER)
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(2_592_000))
+            .subject(userId.toString())
+            .id(UUID.randomUUID().toString())
+            .claim("typ", "refresh")
+            .claim("role", "USER")
+            .build();
+        String at = encoder.encode(JwtEncoderParameters.from(header, access)).getTokenValue();
+        String rt = encoder.encode(JwtEncoderParameters.from(header, refresh)).getTokenValue();
+        return new TokenResponse("Bearer", at, 900, rt);
+    }
+}
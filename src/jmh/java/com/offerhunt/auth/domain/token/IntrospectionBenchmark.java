@@ -0,0 +1,96 @@
+package com.offerhunt.auth.domain.token;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.offerhunt.auth.domain.dao.AccessRevocationDao;
+import com.offerhunt.auth.domain.revocation.AccessTokenDenylist;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * Интроспекция одного и того же access-токена через {@link JwtIntrospectionProvider}: повтор
+ * из кеша (digest + проверка отзыва) против проверки подписи на каждый вызов (часы кеша сдвинуты
+ * на сутки вперёд — записи истекают сразу).
+ * Аутентификация клиента и HTTP не входят.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+public class IntrospectionBenchmark {
+
+    private static final String ISSUER = "http://localhost:8080";
+    private static final String AUDIENCE = "offerhunt-api";
+
+    private JwtIntrospectionProvider cached;
+    private JwtIntrospectionProvider uncached;
+    private OAuth2TokenIntrospectionAuthenticationToken request;
+
+    @Setup
+    public void setUp() {
+        JWK key = SigningAlgorithm.RS256.generateKey("bench");
+        var jwkSource = new ImmutableJWKSet<SecurityContext>(new JWKSet(key));
+        AccessRevocationDao noDb = new AccessRevocationDao(null) {
+            @Override
+            public void upsert(String k, Instant notBefore, Instant expiresAt, Instant revokedAt) {
+            }
+        };
+        AccessTokenDenylist denylist = new AccessTokenDenylist(noDb, new SimpleMeterRegistry(), 100_000, 0.01);
+        var authorizations = new InMemoryOAuth2AuthorizationService();
+        // бенчмарк гоняет только JWT — хранилище reference-токенов не используется
+        var referenceTokens = new ReferenceTokenStore(null, new SimpleMeterRegistry(), 1);
+        cached = new JwtIntrospectionProvider(
+            jwkSource, ISSUER, AUDIENCE, authorizations, referenceTokens, denylist, 100_000, Duration.ofSeconds(30));
+        uncached = new JwtIntrospectionProvider(
+            jwkSource, ISSUER, AUDIENCE, authorizations, referenceTokens, denylist, 100_000, Duration.ofSeconds(30),
+            Clock.offset(Clock.systemUTC(), Duration.ofDays(1)));
+
+        var client = new OAuth2ClientAuthenticationToken(
+            RegisteredClient.withId("1")
+                .clientId("legacy")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .build(),
+            ClientAuthenticationMethod.CLIENT_SECRET_BASIC,
+            "secret"
+        );
+        TokenMinter minter = new TokenMinter(key, ISSUER, AUDIENCE);
+        request = new OAuth2TokenIntrospectionAuthenticationToken(
+            minter.access(UUID.randomUUID(), "USER", UUID.randomUUID().toString(), Instant.now()), client, null, null);
+        cached.authenticate(request);
+    }
+
+    @Benchmark
+    public Authentication introspectCached() {
+        return cached.authenticate(request);
+    }
+
+    @Benchmark
+    public Authentication introspectVerify() {
+        return uncached.authenticate(request);
+    }
+}
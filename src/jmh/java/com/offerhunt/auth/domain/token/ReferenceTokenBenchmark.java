@@ -0,0 +1,104 @@
+package com.offerhunt.auth.domain.token;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.offerhunt.auth.domain.dao.AccessRevocationDao;
+import com.offerhunt.auth.domain.dao.ReferenceTokenDao;
+import com.offerhunt.auth.domain.dao.ReferenceTokenDao.StoredReferenceToken;
+import com.offerhunt.auth.domain.revocation.AccessTokenDenylist;
+import com.offerhunt.auth.domain.revocation.RevocationCheckingJwtDecoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/**
+ * Разбор access-токена на ресурс-сервере в рабочей цепочке декодеров (отзыв → reference → кеш →
+ * подпись): JWT из {@link TokenMinter} без кеша и из кеша против reference-токена из кеша
+ * {@link ReferenceTokenStore}. Размеры заголовка {@code Authorization} печатаются в setup.
+ * БД не участвует: запись выдачи — no-op, разрешение идёт из памяти.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+public class ReferenceTokenBenchmark {
+
+    private static final String ISSUER = "http://localhost:8080";
+    private static final String AUDIENCE = "offerhunt-api";
+
+    @Param({"RS256", "ES256"})
+    public SigningAlgorithm algorithm;
+
+    private JwtDecoder uncached;
+    private JwtDecoder cached;
+    private String jwt;
+    private String reference;
+
+    @Setup
+    public void setUp() {
+        JWK key = algorithm.generateKey("bench");
+        Instant now = Instant.now();
+        UUID userId = UUID.randomUUID();
+
+        AccessTokenDenylist denylist = new AccessTokenDenylist(
+            new AccessRevocationDao(null), new SimpleMeterRegistry(), 100_000, 0.01
+        );
+        ReferenceTokenStore store = new ReferenceTokenStore(new ReferenceTokenDao(null) {
+            @Override
+            public void insert(byte[] tokenHash, StoredReferenceToken token) {
+            }
+        }, new SimpleMeterRegistry(), 100_000);
+
+        JwtDecoder signed = JwtDecoderFactory.create(new ImmutableJWKSet<>(new JWKSet(key)));
+        uncached = new RevocationCheckingJwtDecoder(
+            new ReferenceTokenJwtDecoder(signed, store, ISSUER, AUDIENCE), denylist
+        );
+        cached = new RevocationCheckingJwtDecoder(
+            new ReferenceTokenJwtDecoder(new CachingJwtDecoder(signed, 10_000), store, ISSUER, AUDIENCE), denylist
+        );
+
+        jwt = new TokenMinter(key, ISSUER, AUDIENCE).access(userId, "USER", UUID.randomUUID().toString(), now);
+        reference = store.issue(userId, "USER", UUID.randomUUID(), now);
+        cached.decode(jwt);
+
+        System.out.printf("%nAuthorization header bytes: jwt=%d reference=%d%n",
+            header(jwt), header(reference));
+    }
+
+    @Benchmark
+    public Jwt decodeJwt() {
+        return uncached.decode(jwt);
+    }
+
+    @Benchmark
+    public Jwt decodeJwtCached() {
+        return cached.decode(jwt);
+    }
+
+    @Benchmark
+    public Jwt resolveReference() {
+        return cached.decode(reference);
+    }
+
+    private static int header(String token) {
+        return ("Authorization: Bearer " + token).getBytes(StandardCharsets.US_ASCII).length;
+    }
+}
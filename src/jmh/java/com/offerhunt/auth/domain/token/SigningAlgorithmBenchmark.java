@@ -0,0 +1,76 @@
+package com.offerhunt.auth.domain.token;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+/**
+ * Выпуск и проверка access-токена для каждого {@link SigningAlgorithm} — тот же путь,
+ * что у {@code UserService.mintTokens} и {@code jwtDecoder} ресурс-сервера.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+public class SigningAlgorithmBenchmark {
+
+    @Param({"RS256", "ES256", "EDDSA"})
+    public SigningAlgorithm algorithm;
+
+    private JwtEncoder encoder;
+    private JwtDecoder decoder;
+    private JwtEncoderParameters parameters;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        var key = algorithm.generateKey("bench");
+        var jwkSource = new ImmutableJWKSet<>(new JWKSet(key));
+        encoder = new SingleKeyJwtEncoder(key);
+        decoder = JwtDecoderFactory.create(jwkSource, algorithm);
+
+        Instant now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+            .issuer("http://localhost:8080")
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(3600))
+            .subject("00000000-0000-0000-0000-000000000001")
+            .audience(List.of("offerhunt-api"))
+            .claim("scope", "api")
+            .claim("role", "USER")
+            .build();
+        parameters = JwtEncoderParameters.from(JwsHeader.with(algorithm.jwsHeaderAlgorithm()).build(), claims);
+        token = encoder.encode(parameters).getTokenValue();
+    }
+
+    @Benchmark
+    public Jwt mint() {
+        return encoder.encode(parameters);
+    }
+
+    @Benchmark
+    public Jwt verify() {
+        return decoder.decode(token);
+    }
+}
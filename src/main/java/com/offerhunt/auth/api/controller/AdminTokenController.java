@@ -0,0 +1,41 @@
+package com.offerhunt.auth.api.controller;
+
+import com.offerhunt.auth.domain.revocation.AccessTokenDenylist;
+import com.offerhunt.auth.domain.status.UserStatusCache;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminTokenController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminTokenController.class);
+
+    private final AccessTokenDenylist denylist;
+    private final UserStatusCache statuses;
+
+    public AdminTokenController(AccessTokenDenylist denylist, UserStatusCache statuses) {
+        this.denylist = denylist;
+        this.statuses = statuses;
+    }
+
+    /**
+     * Отзывает все выданные пользователю access-токены и сбрасывает его снимок статуса на этой
+     * реплике. Блокировку refresh на любой реплике отвергает и так; новая роль на остальных
+     * репликах попадает в токены не позже ttl снимка.
+     */
+    @PostMapping("/users/{userId}/revoke-tokens")
+    public ResponseEntity<Void> revokeUserTokens(@PathVariable UUID userId, JwtAuthenticationToken auth) {
+        denylist.revokeUser(userId);
+        statuses.invalidate(userId);
+        log.info("event=AccessTokensRevoked userId={} by={}", userId, auth.getToken().getSubject());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -6,6 +6,7 @@ import com.offerhunt.auth.api.dto.LoginRequest;
 import com.offerhunt.auth.api.dto.PasswordResetRequest;
 import com.offerhunt.auth.api.dto.RegisterRequest;
 import com.offerhunt.auth.api.dto.TokenResponse;
+import com.offerhunt.auth.api.limit.PasswordRecoveryThrottle;
 import com.offerhunt.auth.api.validation.StrongPasswordValidator;
 import com.offerhunt.auth.domain.service.PasswordRecoveryService;
 import com.offerhunt.auth.domain.service.UserService;
@@ -33,16 +34,19 @@ public class AuthApiController {
 
     private final UserService users;
     private final PasswordRecoveryService passwordRecoveryService;
+    private final PasswordRecoveryThrottle recoveryThrottle;
     private final Validator validator;
     private final StrongPasswordValidator strongPasswordValidator = new StrongPasswordValidator();
 
     public AuthApiController(
         UserService users,
         PasswordRecoveryService passwordRecoveryService,
+        PasswordRecoveryThrottle recoveryThrottle,
         Validator validator
     ) {
         this.users = users;
         this.passwordRecoveryService = passwordRecoveryService;
+        this.recoveryThrottle = recoveryThrottle;
         this.validator = validator;
     }
 
@@ -62,6 +66,15 @@ public class AuthApiController {
         return users.refresh(refresh);
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+        JwtAuthenticationToken auth,
+        @RequestParam(value = "refresh_token", required = false) String refresh
+    ) {
+        users.logout(auth.getToken(), refresh);
+        return ResponseEntity.noContent().build();
+    }
+
 
     @PostMapping("/password/forgot")
     public ResponseEntity<?> forgotPassword(
@@ -78,7 +91,12 @@ public class AuthApiController {
         String ip = httpRequest.getRemoteAddr();
         String userAgent = httpRequest.getHeader("User-Agent");
 
-        passwordRecoveryService.initiateRecovery(request.email(), ip, userAgent);
+        if (recoveryThrottle.tryAcquire(ip, request.email())) {
+            passwordRecoveryService.initiateRecovery(request.email(), ip, userAgent);
+        } else {
+            // тот же ответ, что и при успехе — не раскрываем ни лимит, ни наличие аккаунта
+            log.info("Password recovery throttled ip={}", ip);
+        }
 
         return ResponseEntity.ok(Map.of(
             "message", "Если аккаунт существует, письмо отправлено."
@@ -0,0 +1,102 @@
+package com.offerhunt.auth.api.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.offerhunt.auth.api.dto.TokenResolveResponse;
+import com.offerhunt.auth.api.dto.TokenVerifyRequest;
+import com.offerhunt.auth.domain.token.TokenBatchVerifier;
+import com.offerhunt.auth.domain.token.TokenBatchVerifier.Result;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Внутренние эндпоинты для API-шлюза и фоновых воркеров; доступ — по scope {@code tokens.verify}.
+ */
+@RestController
+@RequestMapping("/api/internal")
+@ConditionalOnProperty(name = "app.security.enabled", havingValue = "true", matchIfMissing = true)
+public class InternalTokenController {
+
+    private final TokenBatchVerifier verifier;
+    private final JwtDecoder decoder;
+    private final long resolveMaxAgeSeconds;
+    private final ObjectMapper resultMapper;
+
+    public InternalTokenController(
+        TokenBatchVerifier verifier,
+        @Qualifier("jwtDecoder") JwtDecoder decoder,
+        @Value("${app.internal.token-resolve.max-age-seconds:60}") long resolveMaxAgeSeconds,
+        ObjectMapper objectMapper
+    ) {
+        this.verifier = verifier;
+        this.decoder = decoder;
+        this.resolveMaxAgeSeconds = resolveMaxAgeSeconds;
+        this.resultMapper = objectMapper.copy()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Проверка пачки токенов. Ответ — JSON-массив в порядке входного списка, пишется по мере
+     * готовности: шлюз начинает разбирать результаты, пока проверяется хвост пачки.
+     */
+    @PostMapping("/tokens/verify")
+    public ResponseEntity<StreamingResponseBody> verify(@RequestBody TokenVerifyRequest request) {
+        List<CompletableFuture<Result>> results = verifier.verify(request.tokens());
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = resultMapper.getFactory().createGenerator(out)) {
+                gen.writeStartArray();
+                for (CompletableFuture<Result> f : results) {
+                    if (!f.isDone()) {
+                        // отдаём готовое, пока ждём следующий токен
+                        gen.flush();
+                    }
+                    resultMapper.writeValue(gen, f.join());
+                }
+                gen.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Разрешение одного токена (обычно reference) для кеша на стороне сервиса: тело — сам токен.
+     * {@code max-age} не превышает ни {@code exp}, ни {@code resolve-max-age-seconds} — на столько же
+     * потребитель может опоздать с отзывом. Недействительный токен — 404 без тела.
+     */
+    @PostMapping(value = "/tokens/resolve", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<TokenResolveResponse> resolve(@RequestBody String token) {
+        Jwt jwt;
+        try {
+            jwt = decoder.decode(token.strip());
+        } catch (JwtException ex) {
+            return ResponseEntity.notFound().build();
+        }
+        Instant exp = jwt.getExpiresAt();
+        if (exp == null) {
+            return ResponseEntity.notFound().build();
+        }
+        long ttl = Math.min(resolveMaxAgeSeconds, Math.max(0, Duration.between(Instant.now(), exp).getSeconds()));
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofSeconds(ttl)).cachePrivate())
+            .body(new TokenResolveResponse(jwt.getSubject(), jwt.getClaimAsString("role"), exp.getEpochSecond()));
+    }
+}
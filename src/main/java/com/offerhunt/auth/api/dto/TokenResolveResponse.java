@@ -0,0 +1,7 @@
+package com.offerhunt.auth.api.dto;
+
+public record TokenResolveResponse(
+    String sub,
+    String role,
+    long exp
+) { }
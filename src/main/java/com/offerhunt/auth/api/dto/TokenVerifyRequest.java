@@ -0,0 +1,7 @@
+package com.offerhunt.auth.api.dto;
+
+import java.util.List;
+
+public record TokenVerifyRequest(
+    List<String> tokens
+) { }
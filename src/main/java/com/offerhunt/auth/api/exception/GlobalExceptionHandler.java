@@ -1,6 +1,7 @@
 package com.offerhunt.auth.api.exception;
 
 import com.offerhunt.auth.api.dto.ErrorResponse;
+import com.offerhunt.auth.domain.password.PasswordHasher;
 import com.offerhunt.auth.domain.service.PasswordRecoveryService;
 import com.offerhunt.auth.domain.service.UserProfileService;
 import com.offerhunt.auth.domain.service.UserService;
@@ -10,6 +11,7 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.CannotGetJdbcConnectionException;
@@ -124,4 +126,19 @@ public class GlobalExceptionHandler {
             .body(Map.of("message", "Не удалось изменить пароль. Попробуйте позже"));
     }
 
+    @ExceptionHandler(UserService.AccountLockedException.class)
+    public ResponseEntity<Map<String, String>> handleAccountLocked(UserService.AccountLockedException ex) {
+        return ResponseEntity.status(HttpStatus.LOCKED)
+            .body(Map.of("message", "Слишком много неудачных попыток входа. Попробуйте позже."));
+    }
+
+    @ExceptionHandler(PasswordHasher.HashingUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleHashingUnavailable(
+        PasswordHasher.HashingUnavailableException ex
+    ) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of("message", "Сервис перегружен. Попробуйте позже."));
+    }
+
 }
@@ -0,0 +1,100 @@
+package com.offerhunt.auth.api.limit;
+
+import com.netflix.concurrency.limits.Limiter;
+import com.netflix.concurrency.limits.limiter.AbstractLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Адаптивный лимит одновременных запросов на каждую {@link RequestLane}. Лимит подстраивается
+ * по наблюдаемой латентности (Gradient2); всё сверх него сразу получает 503 с Retry-After,
+ * не доходя до security-цепочки, BCrypt и пула соединений.
+ */
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private static final String REJECTED_BODY = "{\"message\":\"Сервис перегружен. Попробуйте позже.\"}";
+
+    private final Map<RequestLane, AbstractLimiter<Void>> limiters;
+    private final Map<RequestLane, Counter> rejected = new EnumMap<>(RequestLane.class);
+    private final String retryAfterSeconds;
+
+    public AdaptiveConcurrencyFilter(
+        Map<RequestLane, AbstractLimiter<Void>> limiters,
+        MeterRegistry meterRegistry,
+        int retryAfterSeconds
+    ) {
+        this.limiters = new EnumMap<>(limiters);
+        this.retryAfterSeconds = Integer.toString(retryAfterSeconds);
+
+        this.limiters.forEach((lane, limiter) -> {
+            Gauge.builder("auth.concurrency.limit", limiter, AbstractLimiter::getLimit)
+                .description("Текущий адаптивный лимит одновременных запросов")
+                .tag("lane", lane.tag())
+                .register(meterRegistry);
+            Gauge.builder("auth.concurrency.inflight", limiter, AbstractLimiter::getInflight)
+                .tag("lane", lane.tag())
+                .register(meterRegistry);
+            rejected.put(lane, Counter.builder("auth.concurrency.rejected")
+                .tag("lane", lane.tag())
+                .register(meterRegistry));
+        });
+    }
+
+    @Override
+    protected void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain chain
+    ) throws ServletException, IOException {
+        RequestLane lane = RequestLane.of(request.getRequestURI().substring(request.getContextPath().length()));
+        Limiter<Void> limiter = limiters.get(lane);
+        if (limiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<Limiter.Listener> token = limiter.acquire(null);
+        if (token.isEmpty()) {
+            rejected.get(lane).increment();
+            reject(response);
+            return;
+        }
+
+        Limiter.Listener listener = token.get();
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            // ошибка не говорит о перегрузке — не учитываем время в лимите
+            listener.onIgnore();
+            throw ex;
+        }
+        if (response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            // 503 изнутри (очередь хеширования, БД) — сигнал перегрузки для алгоритма
+            listener.onDropped();
+        } else {
+            listener.onSuccess();
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(REJECTED_BODY);
+    }
+}
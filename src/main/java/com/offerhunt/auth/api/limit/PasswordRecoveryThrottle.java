@@ -0,0 +1,61 @@
+package com.offerhunt.auth.api.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ограничение частоты «забыли пароль» по IP и по email. Сверх лимита запрос не доходит
+ * до БД и SMTP, а клиент получает тот же нейтральный ответ.
+ */
+@Component
+public class PasswordRecoveryThrottle {
+
+    private final TokenBucketLimiter byIp;
+    private final TokenBucketLimiter byEmail;
+    private final Counter throttledByIp;
+    private final Counter throttledByEmail;
+
+    public PasswordRecoveryThrottle(
+        MeterRegistry meterRegistry,
+        @Value("${app.auth.password-reset.rate-limit.ip.capacity:10}") int ipCapacity,
+        @Value("${app.auth.password-reset.rate-limit.ip.refill-seconds:60}") long ipRefillSeconds,
+        @Value("${app.auth.password-reset.rate-limit.email.capacity:3}") int emailCapacity,
+        @Value("${app.auth.password-reset.rate-limit.email.refill-seconds:300}") long emailRefillSeconds,
+        @Value("${app.auth.password-reset.rate-limit.max-keys:100000}") long maxKeys
+    ) {
+        this.byIp = new TokenBucketLimiter(ipCapacity, Duration.ofSeconds(ipRefillSeconds), maxKeys);
+        this.byEmail = new TokenBucketLimiter(emailCapacity, Duration.ofSeconds(emailRefillSeconds), maxKeys);
+
+        this.throttledByIp = throttledCounter(meterRegistry, "ip");
+        this.throttledByEmail = throttledCounter(meterRegistry, "email");
+        Gauge.builder("auth.password.recovery.buckets", byIp, TokenBucketLimiter::trackedKeys)
+            .tag("key", "ip")
+            .register(meterRegistry);
+        Gauge.builder("auth.password.recovery.buckets", byEmail, TokenBucketLimiter::trackedKeys)
+            .tag("key", "email")
+            .register(meterRegistry);
+    }
+
+    public boolean tryAcquire(String ip, String email) {
+        if (!byIp.tryAcquire(ip)) {
+            throttledByIp.increment();
+            return false;
+        }
+        if (!byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT))) {
+            throttledByEmail.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private static Counter throttledCounter(MeterRegistry registry, String key) {
+        return Counter.builder("auth.password.recovery.throttled")
+            .tag("key", key)
+            .register(registry);
+    }
+}
@@ -0,0 +1,32 @@
+package com.offerhunt.auth.api.limit;
+
+import java.util.Locale;
+
+/**
+ * Группы эндпоинтов с независимыми лимитами: перегрузка логина не должна
+ * мешать обновлению токенов и уже вошедшим пользователям.
+ */
+public enum RequestLane {
+
+    /** BCrypt и запись в БД: login, register, восстановление пароля. */
+    CREDENTIALS,
+    /** Дешёвые запросы с уже выданным токеном: refresh и /api/me. */
+    SESSION,
+    DEFAULT;
+
+    public static RequestLane of(String path) {
+        if (path.equals("/api/auth/refresh") || path.equals("/api/me")) {
+            return SESSION;
+        }
+        if (path.equals("/api/auth/login")
+            || path.equals("/api/auth/register")
+            || path.startsWith("/api/auth/password/")) {
+            return CREDENTIALS;
+        }
+        return DEFAULT;
+    }
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,63 @@
+package com.offerhunt.auth.api.limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket на ключ (IP, email) в форме GCRA: состояние корзины — одно число
+ * «теоретическое время следующего запроса», которое меняется CAS-ом без блокировок.
+ * Корзины живут в Caffeine (внутри шардирован): неактивные вытесняются по времени,
+ * общее число ограничено maxKeys — память не растёт от перебора случайных ключей.
+ */
+public class TokenBucketLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param capacity     сколько запросов можно сделать подряд
+     * @param refillPeriod за сколько восстанавливается один токен
+     */
+    public TokenBucketLimiter(int capacity, Duration refillPeriod, long maxKeys) {
+        this(capacity, refillPeriod, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketLimiter(int capacity, Duration refillPeriod, long maxKeys, LongSupplier nanoClock) {
+        if (capacity < 1 || refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("capacity and refill period must be positive");
+        }
+        this.emissionIntervalNanos = refillPeriod.toNanos();
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.nanoClock = nanoClock;
+        // корзина, к которой не обращались дольше полного пополнения, эквивалентна новой
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterAccess(Duration.ofNanos(emissionIntervalNanos * capacity))
+            .ticker(nanoClock::getAsLong)
+            .build();
+    }
+
+    public boolean tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, now);
+            if (base - now > burstToleranceNanos) {
+                return false;
+            }
+            if (tat.compareAndSet(current, base + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    public long trackedKeys() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,78 @@
+package com.offerhunt.auth.api.metrics;
+
+import com.offerhunt.auth.domain.metrics.AuthStageRecorder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Этап response_write: от передачи тела в HttpMessageConverter (beforeBodyWrite)
+ * до завершения обработки запроса (afterCompletion) — сериализация JSON и запись в буфер ответа.
+ * Меряются только эндпоинты входа и восстановления пароля.
+ */
+@ControllerAdvice
+public class ResponseWriteTiming implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+
+    private static final String STAGE_ATTR = ResponseWriteTiming.class.getName() + ".stage";
+
+    private final AuthStageRecorder stages;
+
+    public ResponseWriteTiming(AuthStageRecorder stages) {
+        this.stages = stages;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+        Object body,
+        MethodParameter returnType,
+        MediaType selectedContentType,
+        Class<? extends HttpMessageConverter<?>> selectedConverterType,
+        ServerHttpRequest request,
+        ServerHttpResponse response
+    ) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            HttpServletRequest r = servletRequest.getServletRequest();
+            String flow = flowOf(r.getRequestURI().substring(r.getContextPath().length()));
+            if (flow != null && r.getAttribute(STAGE_ATTR) == null) {
+                r.setAttribute(STAGE_ATTR, stages.start(flow, "response_write"));
+            }
+        }
+        return body;
+    }
+
+    @Override
+    public void afterCompletion(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        Object handler,
+        Exception ex
+    ) {
+        if (request.getAttribute(STAGE_ATTR) instanceof AuthStageRecorder.Stage stage) {
+            request.removeAttribute(STAGE_ATTR);
+            stage.close();
+        }
+    }
+
+    private static String flowOf(String path) {
+        return switch (path) {
+            case "/api/auth/login" -> AuthStageRecorder.FLOW_LOGIN;
+            case "/api/auth/refresh" -> AuthStageRecorder.FLOW_REFRESH;
+            case "/api/auth/password/forgot" -> AuthStageRecorder.FLOW_RECOVERY;
+            case "/api/auth/password/reset" -> AuthStageRecorder.FLOW_RESET;
+            default -> null;
+        };
+    }
+}
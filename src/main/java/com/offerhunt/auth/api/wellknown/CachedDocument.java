@@ -0,0 +1,42 @@
+package com.offerhunt.auth.api.wellknown;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Готовое к отдаче тело ответа со строгим ETag (SHA-256 содержимого): одинаковый документ
+ * на любой реплике получает одинаковый ETag.
+ */
+record CachedDocument(byte[] body, String contentType, String etag) {
+
+    static CachedDocument of(byte[] body, String contentType) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            String tag = Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+            return new CachedDocument(body, contentType, "\"" + tag + "\"");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Слабое сравнение из RFC 9110 для If-None-Match. */
+    boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
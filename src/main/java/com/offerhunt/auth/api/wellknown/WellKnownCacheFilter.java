@@ -0,0 +1,126 @@
+package com.offerhunt.auth.api.wellknown;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.offerhunt.auth.domain.token.SigningKeyRing;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * JWKS и discovery-документы, которые опрашивают все сервисы и шлюзы, отдаются из готовых байтов
+ * с ETag, {@code Cache-Control: max-age} и 304 — без security-цепочки и повторной сериализации.
+ *
+ * <p>JWKS сериализуется заново только при смене набора ключей в {@link SigningKeyRing}.
+ * Discovery-документы не зависят от ключей: первый ответ Authorization Server запоминается как есть.
+ */
+public class WellKnownCacheFilter extends OncePerRequestFilter {
+
+    static final String JWKS_PATH = "/oauth2/jwks";
+    static final Set<String> DISCOVERY_PATHS = Set.of(
+        "/.well-known/openid-configuration",
+        "/.well-known/oauth-authorization-server"
+    );
+
+    private final SigningKeyRing keyRing;
+    private final String jwksCacheControl;
+    private final String discoveryCacheControl;
+
+    private volatile JwksDocument jwks;
+    private final Map<String, CachedDocument> discovery = new ConcurrentHashMap<>();
+
+    public WellKnownCacheFilter(SigningKeyRing keyRing, Duration jwksMaxAge, Duration discoveryMaxAge) {
+        this.keyRing = keyRing;
+        this.jwksCacheControl = "public, max-age=" + jwksMaxAge.toSeconds();
+        this.discoveryCacheControl = "public, max-age=" + discoveryMaxAge.toSeconds();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+        String path = path(request);
+        return !JWKS_PATH.equals(path) && !DISCOVERY_PATHS.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain chain
+    ) throws ServletException, IOException {
+        String path = path(request);
+        if (JWKS_PATH.equals(path)) {
+            write(request, response, jwksDocument(), jwksCacheControl);
+            return;
+        }
+
+        CachedDocument cached = discovery.get(path);
+        if (cached != null) {
+            write(request, response, cached, discoveryCacheControl);
+            return;
+        }
+
+        var capturing = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, capturing);
+        if (capturing.getStatus() != HttpServletResponse.SC_OK || HttpMethod.HEAD.matches(request.getMethod())) {
+            capturing.copyBodyToResponse();
+            return;
+        }
+        cached = CachedDocument.of(capturing.getContentAsByteArray(), capturing.getContentType());
+        discovery.putIfAbsent(path, cached);
+        // заголовки security-цепочки (no-store и т.п.) к публичному документу не относятся
+        response.reset();
+        write(request, response, cached, discoveryCacheControl);
+    }
+
+    private CachedDocument jwksDocument() {
+        JWKSet keys = keyRing.publishedKeys();
+        JwksDocument current = jwks;
+        if (current == null || current.keys() != keys) {
+            byte[] body = keys.toPublicJWKSet().toString().getBytes(StandardCharsets.UTF_8);
+            current = new JwksDocument(keys, CachedDocument.of(body, MediaType.APPLICATION_JSON_VALUE));
+            jwks = current;
+        }
+        return current.document();
+    }
+
+    private static void write(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        CachedDocument document,
+        String cacheControl
+    ) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, document.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (document.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(document.contentType());
+        response.setContentLength(document.body().length);
+        if (!HttpMethod.HEAD.matches(request.getMethod())) {
+            response.getOutputStream().write(document.body());
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private record JwksDocument(JWKSet keys, CachedDocument document) { }
+}
@@ -0,0 +1,56 @@
+package com.offerhunt.auth.config;
+
+import com.netflix.concurrency.limits.limit.Gradient2Limit;
+import com.netflix.concurrency.limits.limiter.AbstractLimiter;
+import com.netflix.concurrency.limits.limiter.SimpleLimiter;
+import com.offerhunt.auth.api.limit.AdaptiveConcurrencyFilter;
+import com.offerhunt.auth.api.limit.RequestLane;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@ConditionalOnProperty(name = "app.api.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    private static final String PREFIX = "app.api.concurrency.";
+
+    /**
+     * Фильтр стоит раньше Spring Security: отклонённый запрос не тратит время даже на разбор JWT.
+     */
+    @Bean
+    public FilterRegistrationBean<AdaptiveConcurrencyFilter> adaptiveConcurrencyFilter(
+        Environment env,
+        MeterRegistry meterRegistry,
+        @Value("${app.api.concurrency.retry-after-seconds:1}") int retryAfterSeconds
+    ) {
+        Map<RequestLane, AbstractLimiter<Void>> limiters = new EnumMap<>(RequestLane.class);
+        for (RequestLane lane : RequestLane.values()) {
+            String p = PREFIX + lane.tag() + ".";
+            int initial = env.getProperty(p + "initial-limit", Integer.class, 20);
+            int max = env.getProperty(p + "max-limit", Integer.class, 200);
+            limiters.put(lane, SimpleLimiter.newBuilder()
+                .named(lane.tag())
+                .limit(Gradient2Limit.newBuilder()
+                    .initialLimit(initial)
+                    .minLimit(env.getProperty(p + "min-limit", Integer.class, 2))
+                    .maxConcurrency(max)
+                    .build())
+                .build());
+        }
+
+        var registration = new FilterRegistrationBean<>(
+            new AdaptiveConcurrencyFilter(limiters, meterRegistry, retryAfterSeconds)
+        );
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
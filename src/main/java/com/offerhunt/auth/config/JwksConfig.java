@@ -1,37 +1,44 @@
 package com.offerhunt.auth.config;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import com.offerhunt.auth.domain.token.SigningAlgorithm;
+import com.offerhunt.auth.domain.token.SigningKeyRing;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
 
+/**
+ * Ключи подписи и JWKS ({@code /oauth2/jwks}) обслуживает {@link SigningKeyRing}.
+ */
 @Configuration
 public class JwksConfig {
 
+    /** Алгоритм для новых ключей; уже выпущенные ключи проверяются своим алгоритмом до истечения. */
     @Bean
-    public RSAKey rsaKey() {
-        try {
-            KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
-            kpg.initialize(2048);
-            KeyPair kp = kpg.generateKeyPair();
-            return new RSAKey.Builder((RSAPublicKey) kp.getPublic())
-                    .privateKey((RSAPrivateKey) kp.getPrivate())
-                    .keyID("auth-kid-1")
-                    .build();
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
-        }
+    public SigningAlgorithm signingAlgorithm(
+        @Value("${app.security.signing-algorithm:RS256}") String algorithm
+    ) {
+        return SigningAlgorithm.from(algorithm);
     }
 
+    /**
+     * Токены Authorization Server по умолчанию подписываются RS256 — выставляем алгоритм активного ключа.
+     * Токены client_credentials адресованы нашему API: {@code aud} ставится в {@code app.audience},
+     * иначе ресурс-сервер их не примет.
+     */
     @Bean
-    public JWKSource<SecurityContext> jwkSource(RSAKey rsaKey) {
-        return new ImmutableJWKSet<>(new JWKSet(rsaKey));
+    public OAuth2TokenCustomizer<JwtEncodingContext> jwtCustomizer(
+        SigningKeyRing keyRing,
+        @Value("${app.audience}") String audience
+    ) {
+        return context -> {
+            context.getJwsHeader().algorithm(keyRing.activeAlgorithm().jwsHeaderAlgorithm());
+            if (AuthorizationGrantType.CLIENT_CREDENTIALS.equals(context.getAuthorizationGrantType())) {
+                context.getClaims().audience(List.of(audience));
+            }
+        };
     }
 }
@@ -1,44 +1,38 @@
 package com.offerhunt.auth.config;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.offerhunt.auth.domain.token.JwtDecoderFactory;
+import com.offerhunt.auth.domain.token.SigningKeyRing;
+import com.offerhunt.auth.domain.token.SingleKeyJwtEncoder;
+import com.offerhunt.auth.domain.token.TokenMinter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 
 @Configuration
 @ConditionalOnProperty(name = "app.security.use-local-key", havingValue = "true", matchIfMissing = true)
 public class JwtLocalConfig {
 
     @Bean
-    @ConditionalOnMissingBean
-    public RSAKey rsaKey() throws Exception {
-        KeyPairGenerator g = KeyPairGenerator.getInstance("RSA");
-        g.initialize(2048);
-        KeyPair kp = g.generateKeyPair();
-        return new RSAKey.Builder((RSAPublicKey) kp.getPublic())
-            .privateKey((RSAPrivateKey) kp.getPrivate())
-            .keyID("local")
-            .build();
+    public JwtEncoder jwtEncoder(SigningKeyRing keyRing) {
+        return new SingleKeyJwtEncoder(keyRing::activeKey);
     }
 
     @Bean
-    public JwtEncoder jwtEncoder(RSAKey rsaKey) {
-        return new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(rsaKey)));
+    public TokenMinter tokenMinter(
+        SigningKeyRing keyRing,
+        @Value("${app.issuer:http://localhost:8080}") String issuer,
+        @Value("${app.audience:offerhunt-api}") String audience
+    ) {
+        return new TokenMinter(keyRing::activeKey, issuer, audience);
     }
 
     @Bean(name = "localJwtDecoder")
-    public JwtDecoder localJwtDecoder(RSAKey rsaKey) throws Exception {
-        return NimbusJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).build();
+    public JwtDecoder localJwtDecoder(JWKSource<SecurityContext> jwkSource) {
+        return JwtDecoderFactory.create(jwkSource);
     }
 }
@@ -1,8 +1,20 @@
 package com.offerhunt.auth.config;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
 @Configuration
 public class RestClientConfig {
@@ -11,4 +23,67 @@ public class RestClientConfig {
     public RestClient.Builder restClientBuilder() {
         return RestClient.builder();
     }
+
+    /**
+     * Клиент api.github.com для колбэка OAuth. Один JDK {@link HttpClient} на приложение — его пул
+     * держит соединения открытыми между логинами (HTTP/2, с откатом на HTTP/1.1 keep-alive);
+     * медленный GitHub занимает поток колбэка не дольше connect + read timeout.
+     */
+    @Bean
+    public RestClient githubRestClient(
+        RestClient.Builder builder,
+        @Value("${app.oauth2.github.api-url:https://api.github.com}") String apiUrl,
+        @Value("${app.oauth2.github.connect-timeout-ms:1000}") long connectTimeoutMs,
+        @Value("${app.oauth2.github.read-timeout-ms:2000}") long readTimeoutMs
+    ) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return builder.clone()
+            .baseUrl(apiUrl)
+            .requestFactory(requestFactory)
+            .build();
+    }
+
+    /**
+     * Размыкается, когда GitHub отвечает ошибками или медленно: дальнейшие логины сразу идут по
+     * пути «email недоступен». Отказы 4xx (кроме 429) — ответ по конкретному токену, а не
+     * деградация GitHub, и не учитываются. Состояние и время вызовов — в
+     * {@code resilience4j.circuitbreaker.*}.
+     */
+    @Bean
+    public CircuitBreaker githubCircuitBreaker(
+        MeterRegistry meterRegistry,
+        @Value("${app.oauth2.github.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+        @Value("${app.oauth2.github.circuit-breaker.minimum-calls:10}") int minimumCalls,
+        @Value("${app.oauth2.github.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+        @Value("${app.oauth2.github.circuit-breaker.slow-call-ms:1500}") long slowCallMs,
+        @Value("${app.oauth2.github.circuit-breaker.open-duration-ms:30000}") long openDurationMs
+    ) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+            .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+            .slidingWindowSize(slidingWindowSize)
+            .minimumNumberOfCalls(minimumCalls)
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallRateThreshold(failureRateThreshold)
+            .slowCallDurationThreshold(Duration.ofMillis(slowCallMs))
+            .waitDurationInOpenState(Duration.ofMillis(openDurationMs))
+            .permittedNumberOfCallsInHalfOpenState(3)
+            .recordException(RestClientConfig::isGithubFailure)
+            .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker("github");
+    }
+
+    private static boolean isGithubFailure(Throwable ex) {
+        if (ex instanceof HttpClientErrorException clientError) {
+            return clientError.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return ex instanceof RestClientException;
+    }
 }
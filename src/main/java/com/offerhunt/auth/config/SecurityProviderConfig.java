@@ -1,16 +1,36 @@
 package com.offerhunt.auth.config;
 
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.offerhunt.auth.domain.password.BcryptStrengthCalibrator;
+import com.offerhunt.auth.domain.password.MatchCachingPasswordEncoder;
+import com.offerhunt.auth.domain.password.MemoryBudgetedPasswordEncoder;
+import com.offerhunt.auth.domain.revocation.AccessTokenDenylist;
+import com.offerhunt.auth.domain.token.JwtIntrospectionProvider;
+import com.offerhunt.auth.domain.token.ReferenceTokenStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.core.oidc.OidcScopes;
+import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.authentication.ClientSecretAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
@@ -22,32 +42,134 @@ import org.springframework.security.web.SecurityFilterChain;
 @Configuration
 public class SecurityProviderConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityProviderConfig.class);
+
+    private static final String ID_BCRYPT = "bcrypt";
+    private static final String ID_ARGON2 = "argon2";
+
     @Value("${app.issuer}")
     private String issuer;
 
+    /**
+     * {@code /oauth2/introspect} отвечает и по JWT из {@code UserService.mintTokens}
+     * ({@link JwtIntrospectionProvider} стоит первым), и по токенам самого SAS — их проверяет
+     * стандартный провайдер по {@link OAuth2AuthorizationService}. Успешная проверка
+     * секрета клиента кешируется: клиенты интроспекции аутентифицируются на каждый запрос.
+     */
     @Bean
     @Order(1)
-    public SecurityFilterChain authServerSecurityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain authServerSecurityFilterChain(
+        HttpSecurity http,
+        JwtIntrospectionProvider introspectionProvider,
+        PasswordEncoder passwordEncoder,
+        @Value("${app.security.introspection.client-secret-cache-seconds:600}") long secretCacheSeconds
+    ) throws Exception {
         OAuth2AuthorizationServerConfiguration.applyDefaultSecurity(http);
 
+        PasswordEncoder clientSecrets = new MatchCachingPasswordEncoder(
+            passwordEncoder, 1_000, Duration.ofSeconds(secretCacheSeconds));
         http.getConfigurer(OAuth2AuthorizationServerConfigurer.class)
-            .oidc(Customizer.withDefaults());
+            .oidc(Customizer.withDefaults())
+            .clientAuthentication(c -> c.authenticationProviders(providers -> providers.forEach(p -> {
+                if (p instanceof ClientSecretAuthenticationProvider secret) {
+                    secret.setPasswordEncoder(clientSecrets);
+                }
+            })))
+            .tokenIntrospectionEndpoint(e -> e.authenticationProviders(
+                providers -> providers.add(0, introspectionProvider)));
 
         return http.formLogin(Customizer.withDefaults()).build();
     }
 
+    /** Общий для SAS и {@link JwtIntrospectionProvider}: по нему отличаются токены SAS. */
+    @Bean
+    public OAuth2AuthorizationService authorizationService() {
+        return new InMemoryOAuth2AuthorizationService();
+    }
+
+    @Bean
+    public JwtIntrospectionProvider jwtIntrospectionProvider(
+        JWKSource<SecurityContext> jwkSource,
+        OAuth2AuthorizationService authorizationService,
+        ReferenceTokenStore referenceTokens,
+        AccessTokenDenylist denylist,
+        MeterRegistry meterRegistry,
+        @Value("${app.security.introspection.cache-max-size:100000}") long cacheMaxSize,
+        @Value("${app.security.introspection.negative-ttl-seconds:30}") long negativeTtlSeconds,
+        @Value("${app.audience}") String audience
+    ) {
+        JwtIntrospectionProvider provider = new JwtIntrospectionProvider(
+            jwkSource, issuer, audience, authorizationService, referenceTokens, denylist, cacheMaxSize,
+            Duration.ofSeconds(negativeTtlSeconds));
+        provider.bindTo(meterRegistry);
+        return provider;
+    }
+
     @Bean
     public AuthorizationServerSettings authorizationServerSettings() {
         return AuthorizationServerSettings.builder().issuer(issuer).build();
     }
 
+    /**
+     * Хеши хранятся с id-префиксом ({@code {bcrypt}...} / {@code {argon2}...}); строки без префикса
+     * читаются как BCrypt. Новые хеши пишутся алгоритмом {@code app.auth.password-hashing.algorithm},
+     * остальные перехешируются при логине (см. {@code UserService.login}).
+     * Стоимость BCrypt подбирается на старте под целевую задержку; Argon2id ограничен общим
+     * бюджетом памяти на все одновременные операции.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+        @Value("${app.auth.password-hashing.algorithm:bcrypt}") String algorithm,
+        @Value("${app.auth.password-hashing.bcrypt.calibrate:true}") boolean calibrate,
+        @Value("${app.auth.password-hashing.bcrypt.strength:10}") int strength,
+        @Value("${app.auth.password-hashing.bcrypt.min-strength:10}") int minStrength,
+        @Value("${app.auth.password-hashing.bcrypt.max-strength:14}") int maxStrength,
+        @Value("${app.auth.password-hashing.bcrypt.target-ms:80}") long targetMillis,
+        @Value("${app.auth.password-hashing.argon2.memory-kib:19456}") int argonMemoryKib,
+        @Value("${app.auth.password-hashing.argon2.iterations:2}") int argonIterations,
+        @Value("${app.auth.password-hashing.argon2.parallelism:1}") int argonParallelism,
+        @Value("${app.auth.password-hashing.argon2.memory-budget-mb:0}") int memoryBudgetMib
+    ) {
+        String idForEncode = algorithm.toLowerCase(Locale.ROOT);
+        if (!ID_BCRYPT.equals(idForEncode) && !ID_ARGON2.equals(idForEncode)) {
+            throw new IllegalStateException("Unsupported password hashing algorithm: " + algorithm);
+        }
+
+        // калибруем, только если BCrypt действительно пишет новые хеши
+        int effectiveStrength = calibrate && ID_BCRYPT.equals(idForEncode)
+            ? new BcryptStrengthCalibrator(minStrength, maxStrength, Duration.ofMillis(targetMillis), 5).calibrate()
+            : strength;
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(effectiveStrength);
+
+        int budgetMib = memoryBudgetMib > 0
+            ? memoryBudgetMib
+            : (int) (Runtime.getRuntime().maxMemory() / 4 / (1024 * 1024));
+        MemoryBudgetedPasswordEncoder argon2 = new MemoryBudgetedPasswordEncoder(
+            new Argon2PasswordEncoder(16, 32, argonParallelism, argonMemoryKib, argonIterations),
+            budgetMib,
+            (argonMemoryKib + 1023) / 1024
+        );
+        log.info("Password encoder algorithm={} bcryptStrength={} argon2MemoryKib={} argon2MaxConcurrency={}",
+            idForEncode, effectiveStrength, argonMemoryKib, argon2.maxConcurrency());
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(
+            idForEncode,
+            Map.<String, PasswordEncoder>of(ID_BCRYPT, bcrypt, ID_ARGON2, argon2)
+        );
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
+    /**
+     * Внутренний клиент API-шлюза (client_credentials, scope {@code tokens.verify}) регистрируется,
+     * только если задан {@code AUTH_GATEWAY_CLIENT_SECRET}.
+     */
     @Bean
-    public InMemoryRegisteredClientRepository registeredClientRepository() {
+    public InMemoryRegisteredClientRepository registeredClientRepository(
+        PasswordEncoder passwordEncoder,
+        @Value("${app.internal.gateway-client.id:offerhunt-gateway}") String gatewayClientId,
+        @Value("${app.internal.gateway-client.secret:}") String gatewayClientSecret
+    ) {
         RegisteredClient spa = RegisteredClient.withId(UUID.randomUUID().toString())
             .clientId("offerhunt-spa")
             .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
@@ -63,6 +185,16 @@ public class SecurityProviderConfig {
                 .build())
             .build();
 
-        return new InMemoryRegisteredClientRepository(spa);
+        if (gatewayClientSecret.isBlank()) {
+            return new InMemoryRegisteredClientRepository(spa);
+        }
+        RegisteredClient gateway = RegisteredClient.withId(UUID.randomUUID().toString())
+            .clientId(gatewayClientId)
+            .clientSecret(passwordEncoder.encode(gatewayClientSecret))
+            .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+            .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+            .scope("tokens.verify")
+            .build();
+        return new InMemoryRegisteredClientRepository(spa, gateway);
     }
 }
\ No newline at end of file
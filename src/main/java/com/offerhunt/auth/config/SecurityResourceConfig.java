@@ -2,6 +2,15 @@ package com.offerhunt.auth.config;
 
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.offerhunt.auth.domain.revocation.AccessTokenDenylist;
+import com.offerhunt.auth.domain.revocation.RevocationCheckingJwtDecoder;
+import com.offerhunt.auth.domain.token.CachingJwtDecoder;
+import com.offerhunt.auth.domain.token.JwtDecoderFactory;
+import com.offerhunt.auth.domain.token.ReferenceTokenJwtDecoder;
+import com.offerhunt.auth.domain.token.ReferenceTokenStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -11,11 +20,13 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
@@ -31,6 +42,12 @@ public class SecurityResourceConfig {
     @Value("${app.audience}")
     private String audience;
 
+    @Value("${app.security.jwt-cache.enabled:true}")
+    private boolean jwtCacheEnabled;
+
+    @Value("${app.security.jwt-cache.max-size:10000}")
+    private long jwtCacheMaxSize;
+
     @Bean
     @Order(2)
     public SecurityFilterChain apiSecurityFilterChain(
@@ -51,20 +68,81 @@ public class SecurityResourceConfig {
                 ).permitAll()
                 .requestMatchers("/api/public/**").permitAll()
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/api/internal/**").hasAuthority("SCOPE_tokens.verify")
                 .anyRequest().authenticated()
             )
-            .oauth2ResourceServer(o -> o.jwt(j -> j.decoder(jwtDecoder)));
+            .oauth2ResourceServer(o -> o.jwt(j -> j
+                .decoder(jwtDecoder)
+                .jwtAuthenticationConverter(jwtAuthenticationConverter())
+            ));
+        return http.build();
+    }
+
+    /** Health открыт для проб балансировщика, остальной actuator (metrics) — только для ADMIN. */
+    @Bean
+    @Order(4)
+    public SecurityFilterChain actuatorSecurityFilterChain(
+        HttpSecurity http,
+        @Qualifier("jwtDecoder") JwtDecoder jwtDecoder
+    ) throws Exception {
+        http
+            .securityMatcher("/actuator/**")
+            .csrf(csrf -> csrf.ignoringRequestMatchers("/actuator/**"))
+            .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(a -> a
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .anyRequest().hasRole("ADMIN")
+            )
+            .oauth2ResourceServer(o -> o.jwt(j -> j
+                .decoder(jwtDecoder)
+                .jwtAuthenticationConverter(jwtAuthenticationConverter())
+            ));
         return http.build();
     }
 
+    /** {@code scope} → {@code SCOPE_*}, {@code role} → {@code ROLE_*}. */
+    private static JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter scopes = new JwtGrantedAuthoritiesConverter();
+        JwtGrantedAuthoritiesConverter roles = new JwtGrantedAuthoritiesConverter();
+        roles.setAuthoritiesClaimName("role");
+        roles.setAuthorityPrefix("ROLE_");
+
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(jwt -> {
+            Collection<GrantedAuthority> authorities = new ArrayList<>(scopes.convert(jwt));
+            authorities.addAll(roles.convert(jwt));
+            return authorities;
+        });
+        return converter;
+    }
+
+    /**
+     * Один и тот же access-токен приходит много раз за свои 15 минут — при включённом кеше
+     * подпись и валидаторы выполняются для него один раз. Reference-токены разрешаются мимо
+     * проверки подписи. Отзыв проверяется на каждый запрос, поверх кеша, для обоих форматов.
+     */
     @Bean
     @Primary
-    public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource) {
-        NimbusJwtDecoder d = (NimbusJwtDecoder) OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
+    public JwtDecoder jwtDecoder(
+        JWKSource<SecurityContext> jwkSource,
+        MeterRegistry meterRegistry,
+        AccessTokenDenylist denylist,
+        ReferenceTokenStore referenceTokens
+    ) {
+        NimbusJwtDecoder d = JwtDecoderFactory.create(jwkSource);
         d.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
             JwtValidators.createDefaultWithIssuer(issuer),
             new AudienceValidator(audience)
         ));
-        return d;
+        JwtDecoder jwt = d;
+        if (jwtCacheEnabled) {
+            CachingJwtDecoder cached = new CachingJwtDecoder(d, jwtCacheMaxSize);
+            cached.bindTo(meterRegistry);
+            jwt = cached;
+        }
+        return new RevocationCheckingJwtDecoder(
+            new ReferenceTokenJwtDecoder(jwt, referenceTokens, issuer, audience),
+            denylist
+        );
     }
 }
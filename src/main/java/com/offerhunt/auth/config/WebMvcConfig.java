@@ -0,0 +1,21 @@
+package com.offerhunt.auth.config;
+
+import com.offerhunt.auth.api.metrics.ResponseWriteTiming;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ResponseWriteTiming responseWriteTiming;
+
+    public WebMvcConfig(ResponseWriteTiming responseWriteTiming) {
+        this.responseWriteTiming = responseWriteTiming;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(responseWriteTiming).addPathPatterns("/api/auth/**");
+    }
+}
@@ -0,0 +1,37 @@
+package com.offerhunt.auth.config;
+
+import com.offerhunt.auth.api.wellknown.WellKnownCacheFilter;
+import com.offerhunt.auth.domain.token.SigningKeyRing;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class WellKnownCacheConfig {
+
+    /**
+     * max-age JWKS выводится из расписания ротации: новый ключ виден всем репликам через
+     * refresh-interval после создания и начинает подписывать через publish-ahead. Клиент,
+     * закешировавший JWKS на половину этого окна, успеет увидеть ключ до первого токена с ним.
+     */
+    @Bean
+    public FilterRegistrationBean<WellKnownCacheFilter> wellKnownCacheFilter(
+        SigningKeyRing keyRing,
+        @Value("${app.security.key-ring.publish-ahead-minutes:60}") long publishAheadMinutes,
+        @Value("${app.security.key-ring.refresh-interval-ms:60000}") long refreshIntervalMs,
+        @Value("${app.security.well-known.discovery-max-age-seconds:3600}") long discoveryMaxAgeSeconds
+    ) {
+        Duration window = Duration.ofMinutes(publishAheadMinutes).minusMillis(refreshIntervalMs);
+        Duration jwksMaxAge = window.isNegative() ? Duration.ZERO : window.dividedBy(2);
+
+        var registration = new FilterRegistrationBean<>(
+            new WellKnownCacheFilter(keyRing, jwksMaxAge, Duration.ofSeconds(discoveryMaxAgeSeconds))
+        );
+        registration.addUrlPatterns("/oauth2/jwks", "/.well-known/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,64 @@
+package com.offerhunt.auth.domain.dao;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Общий для реплик список отзывов access-токенов; каждая реплика держит его копию в памяти
+ * и дочитывает новые строки по {@code revoked_at}.
+ */
+@Repository
+public class AccessRevocationDao {
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO auth.auth_access_revocations (revocation_key, not_before, expires_at, revoked_at)
+        VALUES (?, ?, ?, ?)
+        ON CONFLICT (revocation_key) DO UPDATE
+        SET not_before = GREATEST(auth.auth_access_revocations.not_before, EXCLUDED.not_before),
+            expires_at = GREATEST(auth.auth_access_revocations.expires_at, EXCLUDED.expires_at),
+            revoked_at = EXCLUDED.revoked_at
+        """;
+
+    private static final String FIND_SINCE_SQL = """
+        SELECT revocation_key, not_before, expires_at
+        FROM auth.auth_access_revocations
+        WHERE revoked_at > ? AND expires_at > ?
+        """;
+
+    private final JdbcTemplate jdbc;
+
+    public AccessRevocationDao(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void upsert(String key, Instant notBefore, Instant expiresAt, Instant revokedAt) {
+        jdbc.update(
+            UPSERT_SQL,
+            key,
+            notBefore != null ? Timestamp.from(notBefore) : null,
+            Timestamp.from(expiresAt),
+            Timestamp.from(revokedAt)
+        );
+    }
+
+    /** Ещё действующие отзывы, записанные после {@code since}. */
+    public List<StoredRevocation> findSince(Instant since, Instant now) {
+        return jdbc.query(FIND_SINCE_SQL, (rs, i) -> {
+            Timestamp notBefore = rs.getTimestamp("not_before");
+            return new StoredRevocation(
+                rs.getString("revocation_key"),
+                notBefore != null ? notBefore.toInstant() : null,
+                rs.getTimestamp("expires_at").toInstant()
+            );
+        }, Timestamp.from(since), Timestamp.from(now));
+    }
+
+    public int deleteExpired(Instant now) {
+        return jdbc.update("DELETE FROM auth.auth_access_revocations WHERE expires_at <= ?", Timestamp.from(now));
+    }
+
+    public record StoredRevocation(String key, Instant notBefore, Instant expiresAt) { }
+}
@@ -0,0 +1,48 @@
+package com.offerhunt.auth.domain.dao;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Пакетная запись счётчиков неудачных входов: один batch вместо UPDATE на каждую попытку.
+ * Пишутся приращения, а блокировка только продлевается: реплики не затирают записи друг друга.
+ */
+@Repository
+public class LoginAttemptDao {
+
+    private static final String UPDATE_SQL = """
+        UPDATE auth.auth_users
+        SET failed_login_count = CASE WHEN ? THEN 0 ELSE failed_login_count END + ?,
+            locked_until = GREATEST(locked_until, ?)
+        WHERE id = ?
+        """;
+
+    private final JdbcTemplate jdbc;
+
+    public LoginAttemptDao(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void saveAll(List<LoginAttemptDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate(UPDATE_SQL, deltas, deltas.size(), (ps, d) -> {
+            ps.setBoolean(1, d.reset());
+            ps.setInt(2, d.failures());
+            ps.setTimestamp(3, d.lockedUntil() != null ? Timestamp.from(d.lockedUntil()) : null);
+            ps.setObject(4, d.userId());
+        });
+    }
+
+    /**
+     * @param reset       счётчик сброшен (успешный вход или новая серия после истёкшей блокировки)
+     * @param failures    неудачные попытки после сброса или с прошлой записи
+     * @param lockedUntil блокировка, известная этой реплике; более поздняя в БД сохраняется
+     */
+    public record LoginAttemptDelta(UUID userId, boolean reset, int failures, Instant lockedUntil) { }
+}
@@ -1,11 +1,41 @@
 package com.offerhunt.auth.domain.dao;
 
 import com.offerhunt.auth.domain.model.PasswordResetToken;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface PasswordResetTokenRepo extends JpaRepository<PasswordResetToken, UUID> {
 
     Optional<PasswordResetToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Гасит токен сброса и ставит новый хеш одним запросом: хеш считается до вызова, соединение
+     * занято одним UPDATE. 0 — токен уже использован или истёк (в том числе параллельным сбросом).
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        WITH used AS (
+            UPDATE auth.auth_password_resets
+            SET used_at = :now
+            WHERE id = :tokenId AND used_at IS NULL AND (expires_at IS NULL OR expires_at > :now)
+            RETURNING user_id
+        )
+        UPDATE auth.auth_users u
+        SET password_hash = :newHash, updated_at = :now, password_changed_at = :changedAt
+        FROM used
+        WHERE u.id = used.user_id
+        """)
+    int resetPassword(
+        @Param("tokenId") UUID tokenId,
+        @Param("newHash") String newHash,
+        @Param("now") Instant now,
+        @Param("changedAt") Instant changedAt
+    );
 }
@@ -0,0 +1,75 @@
+package com.offerhunt.auth.domain.dao;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Непрозрачные access-токены. Запись идёт сразу при выдаче: токен могут предъявить другой
+ * реплике в ту же секунду.
+ */
+@Repository
+public class ReferenceTokenDao {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO auth.auth_reference_tokens (token_hash, jti, user_id, role, issued_at, expires_at)
+        SELECT ?, ?, u.id, ?, ?, ? FROM auth.auth_users u WHERE u.id = ?
+        """;
+
+    private static final String FIND_SQL = """
+        SELECT jti, user_id, role, issued_at, expires_at
+        FROM auth.auth_reference_tokens
+        WHERE token_hash = ?
+        """;
+
+    private final JdbcTemplate jdbc;
+
+    public ReferenceTokenDao(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @throws JdbcUpdateAffectedIncorrectNumberOfRowsException строка не записана — пользователя
+     *     уже нет, токен выдавать нельзя
+     */
+    public void insert(byte[] tokenHash, StoredReferenceToken token) {
+        int rows = jdbc.update(
+            INSERT_SQL,
+            tokenHash,
+            token.jti(),
+            token.role(),
+            Timestamp.from(token.issuedAt()),
+            Timestamp.from(token.expiresAt()),
+            token.userId()
+        );
+        if (rows != 1) {
+            throw new JdbcUpdateAffectedIncorrectNumberOfRowsException(INSERT_SQL, 1, rows);
+        }
+    }
+
+    public Optional<StoredReferenceToken> find(byte[] tokenHash) {
+        return jdbc.query(FIND_SQL, (rs, i) -> new StoredReferenceToken(
+            rs.getObject("jti", UUID.class),
+            rs.getObject("user_id", UUID.class),
+            rs.getString("role"),
+            rs.getTimestamp("issued_at").toInstant(),
+            rs.getTimestamp("expires_at").toInstant()
+        ), (Object) tokenHash).stream().findFirst();
+    }
+
+    public int deleteExpired(Instant now) {
+        return jdbc.update("DELETE FROM auth.auth_reference_tokens WHERE expires_at <= ?", Timestamp.from(now));
+    }
+
+    public record StoredReferenceToken(
+        UUID jti,
+        UUID userId,
+        String role,
+        Instant issuedAt,
+        Instant expiresAt
+    ) { }
+}
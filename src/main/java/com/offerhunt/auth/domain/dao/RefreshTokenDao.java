@@ -0,0 +1,138 @@
+package com.offerhunt.auth.domain.dao;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Refresh-токены и отозванные цепочки. Выдача пишется пакетами; погашение и отзыв цепочки —
+ * сразу: их должны увидеть остальные реплики.
+ */
+@Repository
+public class RefreshTokenDao {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO auth.auth_refresh_tokens (token_hash, family_id, parent_hash, user_id, expires_at)
+        SELECT ?, ?, ?, u.id, ? FROM auth.auth_users u WHERE u.id = ?
+        ON CONFLICT (token_hash) DO NOTHING
+        """;
+
+    // строки ещё нет, если выдача не дошла из пакета: тогда она вставляется сразу погашенной.
+    // Статус и смена пароля проверяются здесь же, а не только по снимку реплики
+    private static final String CONSUME_SQL = """
+        INSERT INTO auth.auth_refresh_tokens AS t
+            (token_hash, family_id, parent_hash, user_id, expires_at, consumed_at)
+        SELECT ?, ?, ?, u.id, ?, ? FROM auth.auth_users u
+        WHERE u.id = ?
+          AND u.status = 'ACTIVE'
+          AND (u.password_changed_at IS NULL OR u.password_changed_at <= CAST(? AS timestamptz))
+        ON CONFLICT (token_hash) DO UPDATE SET consumed_at = EXCLUDED.consumed_at
+        WHERE t.consumed_at IS NULL
+        """;
+
+    private static final String FIND_SQL = """
+        SELECT t.family_id, t.user_id, t.expires_at, t.consumed_at IS NOT NULL AS consumed,
+               f.family_id IS NOT NULL AS family_revoked
+        FROM auth.auth_refresh_tokens t
+        LEFT JOIN auth.auth_refresh_families_revoked f ON f.family_id = t.family_id
+        WHERE t.token_hash = ?
+        """;
+
+    private static final String REVOKE_FAMILY_SQL = """
+        INSERT INTO auth.auth_refresh_families_revoked (family_id, user_id, revoked_at)
+        VALUES (?, ?, ?)
+        ON CONFLICT (family_id) DO NOTHING
+        """;
+
+    private final JdbcTemplate jdbc;
+
+    public RefreshTokenDao(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Токены пользователей, удалённых до записи пакета, пропускаются. */
+    public void insertAll(List<IssuedRefreshToken> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate(INSERT_SQL, tokens, tokens.size(), (ps, t) -> {
+            ps.setBytes(1, t.tokenHash());
+            ps.setObject(2, t.familyId());
+            ps.setBytes(3, t.parentHash());
+            ps.setTimestamp(4, Timestamp.from(t.expiresAt()));
+            ps.setObject(5, t.userId());
+        });
+    }
+
+    /**
+     * Погашает токен условной записью — единственный источник истины для всех реплик.
+     *
+     * @param issuedAt {@code iat} токена; выданный до смены пароля не погашается
+     * @return {@code false} — токен уже погашен, пользователь удалён, неактивен или сменил пароль
+     *     после {@code issuedAt}
+     */
+    public boolean consume(IssuedRefreshToken token, Instant consumedAt, Instant issuedAt) {
+        return jdbc.update(
+            CONSUME_SQL,
+            token.tokenHash(),
+            token.familyId(),
+            token.parentHash(),
+            Timestamp.from(token.expiresAt()),
+            Timestamp.from(consumedAt),
+            token.userId(),
+            issuedAt != null ? Timestamp.from(issuedAt) : null
+        ) == 1;
+    }
+
+    public Optional<StoredRefreshToken> find(byte[] tokenHash) {
+        return jdbc.query(FIND_SQL, (rs, i) -> new StoredRefreshToken(
+            rs.getObject("family_id", UUID.class),
+            rs.getObject("user_id", UUID.class),
+            rs.getTimestamp("expires_at").toInstant(),
+            rs.getBoolean("consumed"),
+            rs.getBoolean("family_revoked")
+        ), (Object) tokenHash).stream().findFirst();
+    }
+
+    public void revokeFamily(UUID familyId, UUID userId, Instant revokedAt) {
+        jdbc.update(REVOKE_FAMILY_SQL, familyId, userId, Timestamp.from(revokedAt));
+    }
+
+    public List<UUID> findFamiliesRevokedSince(Instant since) {
+        return jdbc.queryForList(
+            "SELECT family_id FROM auth.auth_refresh_families_revoked WHERE revoked_at > ?",
+            UUID.class,
+            Timestamp.from(since)
+        );
+    }
+
+    /** Истёкшие токены и отзывы старше срока жизни любого токена цепочки. */
+    public int deleteExpired(Instant now, Instant revokedBefore) {
+        int tokens = jdbc.update("DELETE FROM auth.auth_refresh_tokens WHERE expires_at <= ?", Timestamp.from(now));
+        int families = jdbc.update(
+            "DELETE FROM auth.auth_refresh_families_revoked WHERE revoked_at <= ?",
+            Timestamp.from(revokedBefore)
+        );
+        return tokens + families;
+    }
+
+    public record IssuedRefreshToken(
+        byte[] tokenHash,
+        UUID familyId,
+        byte[] parentHash,
+        UUID userId,
+        Instant expiresAt
+    ) { }
+
+    public record StoredRefreshToken(
+        UUID familyId,
+        UUID userId,
+        Instant expiresAt,
+        boolean consumed,
+        boolean familyRevoked
+    ) { }
+}
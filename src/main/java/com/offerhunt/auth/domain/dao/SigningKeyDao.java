@@ -0,0 +1,109 @@
+package com.offerhunt.auth.domain.dao;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Кольцо ключей подписи в {@code auth.auth_signing_keys}. Создание и ротация выполняются
+ * под транзакционной advisory-блокировкой, чтобы при одновременном старте реплик
+ * ключ сгенерировала только одна.
+ */
+@Repository
+public class SigningKeyDao {
+
+    // произвольная константа, общая для всех реплик
+    private static final long ROTATION_LOCK_ID = 0x6f6866_6b657973L;
+
+    private static final String SELECT_LIVE_SQL = """
+        SELECT kid, algorithm, public_jwk, private_jwk_enc, created_at, activates_at, expires_at
+        FROM auth.auth_signing_keys
+        WHERE expires_at IS NULL OR expires_at > ?
+        ORDER BY activates_at DESC
+        """;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO auth.auth_signing_keys
+            (kid, algorithm, public_jwk, private_jwk_enc, created_at, activates_at, expires_at)
+        VALUES (?, ?, ?, ?, ?, ?, NULL)
+        """;
+
+    private static final String RETIRE_OTHERS_SQL = """
+        UPDATE auth.auth_signing_keys
+        SET expires_at = ?
+        WHERE kid <> ? AND expires_at IS NULL
+        """;
+
+    private static final String DELETE_EXPIRED_SQL = """
+        DELETE FROM auth.auth_signing_keys
+        WHERE expires_at <= ?
+        """;
+
+    private static final RowMapper<StoredSigningKey> ROW_MAPPER = (rs, i) -> new StoredSigningKey(
+        rs.getString("kid"),
+        rs.getString("algorithm"),
+        rs.getString("public_jwk"),
+        rs.getBytes("private_jwk_enc"),
+        rs.getTimestamp("created_at").toInstant(),
+        rs.getTimestamp("activates_at").toInstant(),
+        rs.getTimestamp("expires_at") != null ? rs.getTimestamp("expires_at").toInstant() : null
+    );
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    public SigningKeyDao(JdbcTemplate jdbc, TransactionTemplate tx) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+    }
+
+    /** Ключи, которые ещё можно публиковать: новые сначала. */
+    public List<StoredSigningKey> findLive(Instant now) {
+        return jdbc.query(SELECT_LIVE_SQL, ROW_MAPPER, Timestamp.from(now));
+    }
+
+    /**
+     * Выполняет {@code action} в транзакции под {@code pg_advisory_xact_lock}: остальные реплики ждут
+     * и затем видят уже записанный результат.
+     */
+    public void inRotationLock(Runnable action) {
+        tx.executeWithoutResult(status -> {
+            jdbc.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, ROTATION_LOCK_ID);
+            action.run();
+        });
+    }
+
+    public void insert(StoredSigningKey key) {
+        jdbc.update(INSERT_SQL,
+            key.kid(),
+            key.algorithm(),
+            key.publicJwk(),
+            key.encryptedPrivateJwk(),
+            Timestamp.from(key.createdAt()),
+            Timestamp.from(key.activatesAt())
+        );
+    }
+
+    /** Все ключи, кроме {@code kid}, перестают публиковаться после {@code expiresAt}. */
+    public int retireOthers(String kid, Instant expiresAt) {
+        return jdbc.update(RETIRE_OTHERS_SQL, Timestamp.from(expiresAt), kid);
+    }
+
+    public int deleteExpired(Instant now) {
+        return jdbc.update(DELETE_EXPIRED_SQL, Timestamp.from(now));
+    }
+
+    public record StoredSigningKey(
+        String kid,
+        String algorithm,
+        String publicJwk,
+        byte[] encryptedPrivateJwk,
+        Instant createdAt,
+        Instant activatesAt,
+        Instant expiresAt
+    ) { }
+}
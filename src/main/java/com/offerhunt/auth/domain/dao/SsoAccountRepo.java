@@ -5,12 +5,20 @@ import com.offerhunt.auth.domain.model.SsoAccountId;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+/**
+ * Чтение привязок сразу с пользователем: {@code SsoAccount.user} ленивый, и без графа каждое
+ * обращение к нему — отдельный SELECT по auth_users (вне транзакции — LazyInitializationException).
+ * Сам SSO-логин идёт мимо JPA, одним запросом {@link SsoLoginDao}.
+ */
 public interface SsoAccountRepo extends JpaRepository<SsoAccount, SsoAccountId> {
 
+    @EntityGraph(attributePaths = "user")
     Optional<SsoAccount> findByProviderAndProviderUserId(String provider, String providerUserId);
 
+    @EntityGraph(attributePaths = "user")
     List<SsoAccount> findByUser_Id(UUID userId);
 
     default List<SsoAccount> findByUserId(UUID userId) {
@@ -0,0 +1,143 @@
+package com.offerhunt.auth.domain.dao;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * SSO-логин одним запросом: находит пользователя по привязке или по email, при необходимости
+ * создаёт пользователя и привязку, отмечает вход и возвращает id и роль. Существующая привязка
+ * запоминает email провайдера этого входа; прежний ({@code prev} — снимок строки до UPDATE)
+ * возвращается.
+ *
+ * <p>Все CTE видят один снимок, поэтому ветки взаимоисключающие: существующая привязка,
+ * пользователь с тем же email (плюс новая привязка) или новый пользователь (плюс привязка).
+ * Гонка за привязку снимается {@code ON CONFLICT} по первичному ключу, гонка за email —
+ * {@code ON CONFLICT DO NOTHING} по ux_auth_users_email_lower: тогда запрос ничего не возвращает,
+ * и его нужно повторить.
+ */
+@Repository
+public class SsoLoginDao {
+
+    private static final String UPSERT_SQL = """
+        WITH p AS (
+            SELECT CAST(? AS varchar) AS provider,
+                   CAST(? AS varchar) AS provider_user_id,
+                   CAST(? AS varchar) AS email,
+                   CAST(? AS varchar) AS email_at_provider,
+                   CAST(? AS boolean) AS email_verified,
+                   CAST(? AS varchar) AS full_name,
+                   CAST(? AS uuid) AS new_id,
+                   CAST(? AS timestamptz) AS now
+        ),
+        link AS (
+            UPDATE auth.auth_user_sso_accounts a
+            SET last_login_at = p.now,
+                email_at_provider = COALESCE(p.email_at_provider, a.email_at_provider)
+            FROM p, auth.auth_user_sso_accounts prev
+            WHERE a.provider = p.provider AND a.provider_user_id = p.provider_user_id
+              AND prev.provider = a.provider AND prev.provider_user_id = a.provider_user_id
+            RETURNING a.user_id, prev.email_at_provider
+        ),
+        by_email AS (
+            SELECT u.id
+            FROM auth.auth_users u, p
+            WHERE LOWER(u.email) = LOWER(p.email)
+              AND NOT EXISTS (SELECT 1 FROM link)
+        ),
+        known AS (
+            SELECT user_id AS id FROM link
+            UNION ALL
+            SELECT id FROM by_email
+        ),
+        created AS (
+            INSERT INTO auth.auth_users (
+                id, email, password_hash, full_name, email_verified_at, created_at, updated_at, last_login_at
+            )
+            SELECT p.new_id, p.email, NULL, p.full_name,
+                   CASE WHEN p.email_verified THEN p.now END, p.now, p.now, p.now
+            FROM p
+            WHERE NOT EXISTS (SELECT 1 FROM known)
+            ON CONFLICT (LOWER(email)) DO NOTHING
+            RETURNING id, global_role
+        ),
+        linked AS (
+            INSERT INTO auth.auth_user_sso_accounts (
+                provider, provider_user_id, user_id, email_at_provider, email_verified, linked_at, last_login_at
+            )
+            SELECT p.provider, p.provider_user_id, t.id, p.email_at_provider, p.email_verified, p.now, p.now
+            FROM p, (SELECT id FROM by_email UNION ALL SELECT id FROM created) t
+            ON CONFLICT (provider, provider_user_id) DO UPDATE SET last_login_at = EXCLUDED.last_login_at
+        ),
+        touched AS (
+            UPDATE auth.auth_users u
+            SET last_login_at = p.now,
+                updated_at = p.now,
+                email_verified_at = CASE
+                    WHEN p.email_verified AND LOWER(u.email) = LOWER(p.email) AND u.email_verified_at IS NULL
+                        THEN p.now
+                    ELSE u.email_verified_at
+                END
+            FROM p
+            WHERE u.id IN (SELECT id FROM known)
+            RETURNING u.id, u.global_role
+        )
+        SELECT t.id, t.global_role, false AS created, l.email_at_provider AS linked_email
+        FROM touched t LEFT JOIN link l ON l.user_id = t.id
+        UNION ALL
+        SELECT id, global_role, true AS created, CAST(NULL AS varchar) AS linked_email FROM created
+        """;
+
+    private final JdbcTemplate jdbc;
+
+    public SsoLoginDao(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @param email          email в нижнем регистре — под ним создаётся пользователь
+     * @param emailAtProvider email в том виде, в каком его отдал провайдер
+     * @param newUserId      id на случай, если пользователя придётся создать
+     * @return пусто — проиграли гонку за email параллельному первому входу, запрос нужно повторить
+     */
+    public Optional<SsoLogin> upsert(
+        String provider,
+        String providerUserId,
+        String email,
+        String emailAtProvider,
+        boolean emailVerified,
+        String fullName,
+        UUID newUserId,
+        Instant now
+    ) {
+        return jdbc.query(UPSERT_SQL, (rs, i) -> new SsoLogin(
+            rs.getObject("id", UUID.class),
+            rs.getString("global_role"),
+            rs.getBoolean("created"),
+            rs.getString("linked_email")
+        ),
+            provider,
+            providerUserId,
+            email,
+            emailAtProvider,
+            emailVerified,
+            fullName,
+            newUserId,
+            Timestamp.from(now)
+        ).stream().findFirst();
+    }
+
+    /**
+     * @param linkedEmail email провайдера, сохранённый в существующей привязке до этого входа (вход
+     *                    записывает в неё текущий); null — привязка создана этим входом
+     */
+    public record SsoLogin(
+        UUID userId,
+        String globalRole,
+        boolean created,
+        String linkedEmail
+    ) { }
+}
@@ -0,0 +1,15 @@
+package com.offerhunt.auth.domain.dao;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Минимум данных для проверки пароля: без профиля и без попадания в persistence context.
+ */
+public record UserCredentials(
+    UUID id,
+    String passwordHash,
+    String globalRole,
+    int failedLoginCount,
+    Instant lockedUntil
+) { }
@@ -0,0 +1,36 @@
+package com.offerhunt.auth.domain.dao;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Регистрация одним запросом: вставка и проверка уникальности email делаются в БД
+ * по индексу ux_auth_users_email_lower, без предварительного SELECT и flush Hibernate.
+ */
+@Repository
+public class UserRegistrationDao {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO auth.auth_users (id, email, password_hash, full_name)
+        VALUES (?, ?, ?, ?)
+        ON CONFLICT (LOWER(email)) DO NOTHING
+        RETURNING id
+        """;
+
+    private final JdbcTemplate jdbc;
+
+    public UserRegistrationDao(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @return id созданного пользователя или пусто, если email уже занят
+     */
+    public Optional<UUID> insertIfAbsent(UUID id, String email, String passwordHash, String fullName) {
+        List<UUID> ids = jdbc.queryForList(INSERT_SQL, UUID.class, id, email, passwordHash, fullName);
+        return ids.stream().findFirst();
+    }
+}
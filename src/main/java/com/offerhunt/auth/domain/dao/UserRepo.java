@@ -1,12 +1,76 @@
 package com.offerhunt.auth.domain.dao;
 
 import com.offerhunt.auth.domain.model.UserEntity;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepo extends JpaRepository<UserEntity, UUID> {
 
-    Optional<UserEntity> findByEmail(String email);
-    boolean existsByEmail(String email);
+    // lower(email) — чтобы планировщик взял функциональный индекс ux_auth_users_email_lower
+    @Query("select u from UserEntity u where lower(u.email) = lower(:email)")
+    Optional<UserEntity> findByEmail(@Param("email") String email);
+
+    @Query("select count(u) > 0 from UserEntity u where lower(u.email) = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
+
+    /**
+     * Горячий путь логина: id, хеш, роль и состояние блокировки — без загрузки сущности.
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+        select new com.offerhunt.auth.domain.dao.UserCredentials(
+            u.id, u.passwordHash, u.globalRole, u.failedLoginCount, u.lockedUntil
+        )
+        from UserEntity u
+        where lower(u.email) = lower(:email)
+        """)
+    Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
+
+    /**
+     * Роль, статус и момент смены пароля — заполняет {@code UserStatusCache} при промахе.
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+        select new com.offerhunt.auth.domain.dao.UserStatus(u.globalRole, u.status, u.passwordChangedAt)
+        from UserEntity u
+        where u.id = :id
+        """)
+    Optional<UserStatus> findStatusById(@Param("id") UUID id);
+
+    /**
+     * Compare-and-set замена хеша: не перетирает пароль, сменённый параллельно.
+     */
+    @Transactional
+    @Modifying
+    @Query("update UserEntity u set u.passwordHash = :newHash where u.id = :id and u.passwordHash = :oldHash")
+    int updatePasswordHash(
+        @Param("id") UUID id,
+        @Param("oldHash") String oldHash,
+        @Param("newHash") String newHash
+    );
+
+    /**
+     * Смена пароля compare-and-set по старому хешу: хеш считается до вызова, соединение занято
+     * одним UPDATE. 0 — пароль сменили параллельно.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        update UserEntity u
+        set u.passwordHash = :newHash, u.updatedAt = :now, u.passwordChangedAt = :changedAt
+        where u.id = :id and u.passwordHash = :oldHash
+        """)
+    int changePasswordHash(
+        @Param("id") UUID id,
+        @Param("oldHash") String oldHash,
+        @Param("newHash") String newHash,
+        @Param("now") Instant now,
+        @Param("changedAt") Instant changedAt
+    );
 }
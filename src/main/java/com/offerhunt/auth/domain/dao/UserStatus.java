@@ -0,0 +1,12 @@
+package com.offerhunt.auth.domain.dao;
+
+import java.time.Instant;
+
+/**
+ * То, что refresh должен знать о пользователе помимо подписи токена.
+ */
+public record UserStatus(
+    String globalRole,
+    String status,
+    Instant passwordChangedAt
+) { }
@@ -0,0 +1,213 @@
+package com.offerhunt.auth.domain.lockout;
+
+import com.offerhunt.auth.domain.dao.LoginAttemptDao;
+import com.offerhunt.auth.domain.dao.LoginAttemptDao.LoginAttemptDelta;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Счётчики неудачных входов в памяти: ConcurrentHashMap по userId, состояние меняется CAS-ом
+ * без блокировок. В Postgres (failed_login_count, locked_until) изменения уходят пакетом
+ * раз в flush-interval, а не UPDATE-ом на каждую попытку.
+ *
+ * <p>В БД пишутся приращения счётчика, а блокировка только продлевается, поэтому реплики
+ * складывают попытки и не снимают блокировки друг друга. Блокировка проверяется по большему
+ * из значений в памяти и в БД (прочитанного вместе с хешем пароля).
+ */
+@Component
+public class LoginAttemptTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptTracker.class);
+
+    private final LoginAttemptDao dao;
+    private final int maxFailures;
+    private final long lockMillis;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    public LoginAttemptTracker(
+        LoginAttemptDao dao,
+        @Value("${app.auth.lockout.max-failures:5}") int maxFailures,
+        @Value("${app.auth.lockout.lock-duration-seconds:900}") long lockSeconds
+    ) {
+        this.dao = dao;
+        this.maxFailures = maxFailures;
+        this.lockMillis = lockSeconds * 1000;
+    }
+
+    /**
+     * Аккаунт заблокирован — проверяем до хеширования, чтобы перебор не тратил CPU на BCrypt.
+     */
+    public boolean isLocked(UUID userId, Instant persistedLockedUntil) {
+        Entry e = entries.get(userId);
+        long local = e != null ? e.state.get().lockedUntil() : 0L;
+        return Math.max(local, millis(persistedLockedUntil)) > System.currentTimeMillis();
+    }
+
+    /**
+     * @return true, если эта попытка привела к блокировке
+     */
+    public boolean recordFailure(UUID userId, int persistedFailures, Instant persistedLockedUntil) {
+        long now = System.currentTimeMillis();
+        State next;
+        while (true) {
+            Entry e = entries.computeIfAbsent(userId, id -> new Entry(
+                new State(persistedFailures, millis(persistedLockedUntil), 0, false)
+            ));
+            State prev = e.state.get();
+            if (prev == State.EVICTED) {
+                // flush как раз выгружает запись — берём новую
+                continue;
+            }
+            // блокировка истекла — считаем заново
+            if (prev.lockedUntil() != 0 && prev.lockedUntil() <= now) {
+                next = new State(1, maxFailures <= 1 ? now + lockMillis : 0L, 1, true);
+            } else {
+                int failures = prev.failures() + 1;
+                long lockedUntil = failures >= maxFailures ? now + lockMillis : 0L;
+                next = new State(failures, lockedUntil, prev.pendingFailures() + 1, prev.pendingReset());
+            }
+            if (e.state.compareAndSet(prev, next)) {
+                break;
+            }
+        }
+
+        boolean locked = next.lockedUntil() != 0;
+        if (locked) {
+            log.info("event=AccountLocked userId={} failures={}", userId, next.failures());
+        }
+        return locked;
+    }
+
+    public void recordSuccess(UUID userId, int persistedFailures) {
+        if (persistedFailures == 0 && !entries.containsKey(userId)) {
+            return;
+        }
+        while (true) {
+            Entry e = entries.computeIfAbsent(userId, id -> new Entry(State.RESET));
+            State prev = e.state.get();
+            if (prev != State.EVICTED && e.state.compareAndSet(prev, State.RESET)) {
+                return;
+            }
+        }
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.auth.lockout.flush-interval-ms:2000}",
+        initialDelayString = "${app.auth.lockout.flush-interval-ms:2000}"
+    )
+    public void flush() {
+        List<Pending> pending = new ArrayList<>();
+        List<LoginAttemptDelta> batch = new ArrayList<>();
+        for (Map.Entry<UUID, Entry> me : entries.entrySet()) {
+            Entry e = me.getValue();
+            State s;
+            do {
+                s = e.state.get();
+            } while (s.dirty() && !e.state.compareAndSet(s, s.written()));
+            if (s.dirty()) {
+                pending.add(new Pending(me.getKey(), e, s));
+                batch.add(new LoginAttemptDelta(
+                    me.getKey(),
+                    s.pendingReset(),
+                    s.pendingFailures(),
+                    s.lockedUntil() != 0 ? Instant.ofEpochMilli(s.lockedUntil()) : null
+                ));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            dao.saveAll(batch);
+        } catch (DataAccessException ex) {
+            pending.forEach(Pending::restore);
+            log.warn("Login attempts flush failed size={}", batch.size(), ex);
+            return;
+        }
+
+        // в БД уже всё записано — незаблокированные записи можно отпустить; проверка и выгрузка
+        // идут под блокировкой ключа и CAS-ом, поэтому параллельная попытка не теряется
+        long now = System.currentTimeMillis();
+        for (Pending p : pending) {
+            entries.computeIfPresent(p.userId(), (id, e) -> {
+                State s = e.state.get();
+                boolean evict = !s.dirty() && s.lockedUntil() <= now && e.state.compareAndSet(s, State.EVICTED);
+                return evict ? null : e;
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    int trackedUsers() {
+        return entries.size();
+    }
+
+    private static long millis(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : 0L;
+    }
+
+    /**
+     * @param failures        счётчик, по которому решается блокировка
+     * @param pendingFailures попытки, ещё не записанные в БД
+     * @param pendingReset    сброс счётчика, ещё не записанный в БД
+     */
+    private record State(int failures, long lockedUntil, int pendingFailures, boolean pendingReset) {
+        static final State RESET = new State(0, 0L, 0, true);
+        // отдельный экземпляр: сравнивается по ссылке
+        static final State EVICTED = new State(0, 0L, 0, false);
+
+        boolean dirty() {
+            return pendingFailures > 0 || pendingReset;
+        }
+
+        State written() {
+            return new State(failures, lockedUntil, 0, false);
+        }
+    }
+
+    private static final class Entry {
+
+        final AtomicReference<State> state;
+
+        Entry(State initial) {
+            this.state = new AtomicReference<>(initial);
+        }
+    }
+
+    /** Записываемый снимок; при неудачной записи его приращения возвращаются в запись. */
+    private record Pending(UUID userId, Entry entry, State written) {
+
+        void restore() {
+            State cur;
+            State merged;
+            do {
+                cur = entry.state.get();
+                // сброс после снимка перекрывает его попытки
+                merged = cur.pendingReset() ? cur : new State(
+                    cur.failures(),
+                    cur.lockedUntil(),
+                    cur.pendingFailures() + written.pendingFailures(),
+                    written.pendingReset()
+                );
+            } while (!entry.state.compareAndSet(cur, merged));
+        }
+    }
+}
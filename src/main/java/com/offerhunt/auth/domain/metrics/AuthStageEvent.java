@@ -0,0 +1,26 @@
+package com.offerhunt.auth.domain.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-событие на этап аутентификации. Включается в профиле записи:
+ * {@code jcmd <pid> JFR.start settings=profile +com.offerhunt.auth.Stage#enabled=true}.
+ */
+@Name("com.offerhunt.auth.Stage")
+@Label("Auth Stage")
+@Category({"OfferHunt", "Auth"})
+@Description("Длительность одного этапа логина/восстановления пароля")
+@StackTrace(false)
+class AuthStageEvent extends Event {
+
+    @Label("Flow")
+    String flow;
+
+    @Label("Stage")
+    String stage;
+}
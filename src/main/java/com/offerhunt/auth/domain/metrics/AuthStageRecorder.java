@@ -0,0 +1,80 @@
+package com.offerhunt.auth.domain.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Поэтапные таймеры логина и восстановления пароля: Micrometer-таймер {@code auth.stage}
+ * с гистограммой (теги flow, stage) и парное JFR-событие {@link AuthStageEvent}.
+ *
+ * <pre>
+ * try (var s = stages.start(AuthStageRecorder.FLOW_LOGIN, "lookup")) {
+ *     ...
+ * }
+ * </pre>
+ */
+@Component
+public class AuthStageRecorder {
+
+    public static final String FLOW_LOGIN = "login";
+    public static final String FLOW_SSO = "sso";
+    public static final String FLOW_REFRESH = "refresh";
+    public static final String FLOW_RECOVERY = "recovery";
+    public static final String FLOW_RESET = "reset";
+    /** Подпись токенов — общий код для всех потоков входа. */
+    public static final String FLOW_TOKEN = "token";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public AuthStageRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Stage start(String flow, String stage) {
+        AuthStageEvent event = new AuthStageEvent();
+        event.begin();
+        return new Stage(timer(flow, stage), event, flow, stage, System.nanoTime());
+    }
+
+    private Timer timer(String flow, String stage) {
+        return timers.computeIfAbsent(flow + ':' + stage, k -> Timer.builder("auth.stage")
+            .description("Длительность этапа аутентификации")
+            .tag("flow", flow)
+            .tag("stage", stage)
+            .publishPercentileHistogram()
+            .register(registry));
+    }
+
+    public static final class Stage implements AutoCloseable {
+
+        private final Timer timer;
+        private final AuthStageEvent event;
+        private final String flow;
+        private final String stage;
+        private final long startNanos;
+
+        private Stage(Timer timer, AuthStageEvent event, String flow, String stage, long startNanos) {
+            this.timer = timer;
+            this.event = event;
+            this.flow = flow;
+            this.stage = stage;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            event.end();
+            if (event.shouldCommit()) {
+                event.flow = flow;
+                event.stage = stage;
+                event.commit();
+            }
+        }
+    }
+}
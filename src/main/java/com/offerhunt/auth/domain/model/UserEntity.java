@@ -48,6 +48,20 @@ public class UserEntity {
     @Column(name = "email_verified_at")
     private Instant emailVerifiedAt;
 
+    // пишет только LoginAttemptTracker батчами — Hibernate не должен перетирать их при сохранении профиля
+    @Column(name = "failed_login_count", insertable = false, updatable = false)
+    private int failedLoginCount;
+
+    @Column(name = "locked_until", insertable = false, updatable = false)
+    private Instant lockedUntil;
+
+    // меняется только вне приложения; значение по умолчанию даёт БД
+    @Column(name = "status", insertable = false, updatable = false)
+    private String status;
+
+    @Column(name = "password_changed_at")
+    private Instant passwordChangedAt;
+
     protected UserEntity() {
     }
 
@@ -126,6 +140,26 @@ public class UserEntity {
         this.emailVerifiedAt = emailVerifiedAt;
     }
 
+    public int getFailedLoginCount() {
+        return failedLoginCount;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Instant getPasswordChangedAt() {
+        return passwordChangedAt;
+    }
+
+    public void setPasswordChangedAt(Instant passwordChangedAt) {
+        this.passwordChangedAt = passwordChangedAt;
+    }
+
     public void setPasswordHash(String passwordHash) {
         this.passwordHash = passwordHash;
     }
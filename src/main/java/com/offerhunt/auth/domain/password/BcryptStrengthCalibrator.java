@@ -0,0 +1,62 @@
+package com.offerhunt.auth.domain.password;
+
+import java.time.Duration;
+import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Подбор work factor BCrypt под целевую задержку на текущем железе.
+ * Перебирает стоимость от min до max и берёт максимальную, у которой медиана
+ * {@code encode} укладывается в target. Ниже min не опускаемся даже на медленном CPU.
+ */
+public class BcryptStrengthCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BcryptStrengthCalibrator.class);
+
+    private static final String PROBE = "calibration-Probe-1!";
+
+    private final int minStrength;
+    private final int maxStrength;
+    private final Duration target;
+    private final int samples;
+
+    public BcryptStrengthCalibrator(int minStrength, int maxStrength, Duration target, int samples) {
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalArgumentException("invalid bcrypt strength range " + minStrength + ".." + maxStrength);
+        }
+        this.minStrength = minStrength;
+        this.maxStrength = maxStrength;
+        this.target = target;
+        this.samples = Math.max(1, samples);
+    }
+
+    public int calibrate() {
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long medianNanos = medianEncodeNanos(strength);
+            log.info("BCrypt calibration strength={} p50={}ms", strength, medianNanos / 1_000_000);
+            if (medianNanos > target.toNanos()) {
+                break;
+            }
+            chosen = strength;
+        }
+        log.info("BCrypt calibration done strength={} targetMs={}", chosen, target.toMillis());
+        return chosen;
+    }
+
+    private long medianEncodeNanos(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode(PROBE); // прогрев
+
+        long[] times = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            encoder.encode(PROBE);
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[samples / 2];
+    }
+}
@@ -0,0 +1,77 @@
+package com.offerhunt.auth.domain.password;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Для секретов клиентов: запоминает успешные {@code matches}, чтобы конфиденциальный клиент,
+ * аутентифицирующийся на каждый запрос (интроспекция), не платил BCrypt каждый раз.
+ * Ключ — HMAC от пары (хеш, секрет) на случайном ключе процесса, сам секрет не хранится;
+ * смена секрета меняет хеш и, значит, ключ. Неудачные проверки не кешируются.
+ * Для паролей пользователей не использовать — там стоимость хеша и есть защита.
+ */
+public class MatchCachingPasswordEncoder implements PasswordEncoder {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+    private final SecretKeySpec processKey;
+    private final Cache<ByteBuffer, Boolean> matched;
+
+    public MatchCachingPasswordEncoder(PasswordEncoder delegate, long maxSize, Duration ttl) {
+        this.delegate = delegate;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.processKey = new SecretKeySpec(key, HMAC);
+        this.matched = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        ByteBuffer key = fingerprint(rawPassword, encodedPassword);
+        if (matched.getIfPresent(key) != null) {
+            return true;
+        }
+        boolean ok = delegate.matches(rawPassword, encodedPassword);
+        if (ok) {
+            matched.put(key, Boolean.TRUE);
+        }
+        return ok;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private ByteBuffer fingerprint(CharSequence raw, String encoded) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(processKey);
+            mac.update(encoded.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return ByteBuffer.wrap(mac.doFinal(raw.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.offerhunt.auth.domain.password;
+
+import java.util.concurrent.Semaphore;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Обёртка над memory-hard энкодером (Argon2id): каждая операция занимает из общего бюджета
+ * столько MiB, сколько требует один хеш. Если бюджет исчерпан — ждём, поэтому
+ * N параллельных логинов × M MiB никогда не превышают заданный объём памяти.
+ */
+public class MemoryBudgetedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Semaphore budget;
+    private final int budgetMib;
+    private final int costMib;
+
+    public MemoryBudgetedPasswordEncoder(PasswordEncoder delegate, int budgetMib, int costMib) {
+        if (costMib <= 0 || costMib > budgetMib) {
+            throw new IllegalArgumentException(
+                "memory budget " + budgetMib + " MiB is too small for a " + costMib + " MiB hash");
+        }
+        this.delegate = delegate;
+        this.budget = new Semaphore(budgetMib, true);
+        this.budgetMib = budgetMib;
+        this.costMib = costMib;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        acquire();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            budget.release(costMib);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        acquire();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            budget.release(costMib);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Сколько операций может выполняться одновременно при текущем бюджете.
+     */
+    public int maxConcurrency() {
+        return budgetMib / costMib;
+    }
+
+    private void acquire() {
+        try {
+            budget.acquire(costMib);
+        } catch (InterruptedException ex) {
+            // нас прервал PasswordHasher по дедлайну ожидания
+            Thread.currentThread().interrupt();
+            throw new PasswordHasher.HashingUnavailableException();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.offerhunt.auth.domain.password;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Хеширование и проверка паролей на выделенном пуле потоков размером с число ядер.
+ * CPU-тяжёлая работа не занимает потоки Tomcat; при переполнении очереди или превышении
+ * времени ожидания бросается {@link HashingUnavailableException} (отдаём 503).
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMillis;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public PasswordHasher(
+        PasswordEncoder encoder,
+        MeterRegistry meterRegistry,
+        @Value("${app.auth.password-hashing.threads:0}") int threads,
+        @Value("${app.auth.password-hashing.queue-capacity:64}") int queueCapacity,
+        @Value("${app.auth.password-hashing.wait-timeout-ms:2000}") long waitTimeoutMillis
+    ) {
+        this.encoder = encoder;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            new HasherThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("auth.password.hash.queue.size", executor, e -> e.getQueue().size())
+            .description("Задачи хеширования, ожидающие свободный поток")
+            .register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+            .register(meterRegistry);
+
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejectedQueueFull = rejectedCounter(meterRegistry, "queue_full");
+        this.rejectedTimeout = rejectedCounter(meterRegistry, "timeout");
+
+        log.info("Password hashing pool started threads={} queueCapacity={} waitTimeoutMs={}",
+            poolSize, queueCapacity, waitTimeoutMillis);
+    }
+
+    public String encode(String rawPassword) {
+        return execute(encodeTimer, () -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Хеш получен устаревшим алгоритмом или с меньшей стоимостью — стоит перехешировать.
+     * Проверка дешёвая (разбор префикса), поэтому выполняется в текущем потоке.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return encodedPassword != null && encoder.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Timer timer, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException ex) {
+            rejectedQueueFull.increment();
+            log.warn("Password hashing rejected – queue is full");
+            throw new HashingUnavailableException();
+        }
+
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            abandon(future);
+            rejectedTimeout.increment();
+            log.warn("Password hashing rejected – wait deadline exceeded ({} ms)", waitTimeoutMillis);
+            throw new HashingUnavailableException();
+        } catch (InterruptedException ex) {
+            abandon(future);
+            Thread.currentThread().interrupt();
+            throw new HashingUnavailableException();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // задача ещё может стоять в очереди — убираем её, чтобы не занимала место
+    private void abandon(Future<?> future) {
+        future.cancel(true);
+        if (future instanceof Runnable r) {
+            executor.remove(r);
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry registry, String op) {
+        return Timer.builder("auth.password.hash")
+            .description("Время хеширования/проверки пароля")
+            .tag("op", op)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("auth.password.hash.rejected")
+            .tag("reason", reason)
+            .register(registry);
+    }
+
+    private static final class HasherThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger seq = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "password-hasher-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    public static class HashingUnavailableException extends RuntimeException { }
+}
@@ -0,0 +1,324 @@
+package com.offerhunt.auth.domain.refresh;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.offerhunt.auth.domain.dao.RefreshTokenDao;
+import com.offerhunt.auth.domain.dao.RefreshTokenDao.IssuedRefreshToken;
+import com.offerhunt.auth.domain.token.TokenMinter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ротация refresh-токенов с отслеживанием цепочек (family). Каждый refresh погашает свой handle
+ * ({@code jti}) и выдаёт следующий в той же цепочке; повторное предъявление погашенного handle
+ * означает утечку — отзывается вся цепочка.
+ *
+ * <p>Недавно выданные handle лежат в ограниченном индексе в памяти, поэтому большинство refresh
+ * находится без чтения из БД; в Postgres хранится только SHA-256 от handle. Индекс — лишь быстрый
+ * отказ для уже погашенных здесь handle: погашение решает условная запись в БД, поэтому handle,
+ * погашенный на другой реплике, здесь тоже распознаётся как повтор. Выдача пишется пакетом раз
+ * в flush-interval, погашение и отзыв цепочки — сразу; отзывы других реплик подтягиваются тем же
+ * периодическим flush. Та же запись не погашает токен заблокированного пользователя или выданный
+ * до смены пароля — даже если снимок пользователя на этой реплике ещё старый; такая цепочка отзывается.
+ */
+@Component
+public class RefreshTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    private static final Duration TTL = Duration.ofSeconds(TokenMinter.REFRESH_TTL_SECONDS);
+    // запас на расхождение часов реплик при чтении свежих отзывов
+    private static final Duration REVOCATION_SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RefreshTokenDao dao;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Cache<ByteBuffer, Entry> index;
+    private final Cache<UUID, Boolean> revokedFamilies;
+    private final Queue<IssuedRefreshToken> pendingInserts = new ConcurrentLinkedQueue<>();
+    private final Counter reuseDetected;
+
+    private volatile Instant revocationsSyncedAt;
+
+    @Autowired
+    public RefreshTokenStore(
+        RefreshTokenDao dao,
+        MeterRegistry meterRegistry,
+        @Value("${app.auth.refresh.index-max-size:100000}") long indexMaxSize
+    ) {
+        this(dao, meterRegistry, indexMaxSize, Clock.systemUTC());
+    }
+
+    RefreshTokenStore(RefreshTokenDao dao, MeterRegistry meterRegistry, long indexMaxSize, Clock clock) {
+        this.dao = dao;
+        this.clock = clock;
+        this.revocationsSyncedAt = clock.instant();
+        this.index = Caffeine.newBuilder()
+            .maximumSize(indexMaxSize)
+            .expireAfterWrite(TTL)
+            .recordStats()
+            .build();
+        this.revokedFamilies = Caffeine.newBuilder()
+            .maximumSize(indexMaxSize)
+            .expireAfterWrite(TTL)
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, index, "auth.refresh.index");
+        Gauge.builder("auth.refresh.pending.writes", this, s -> s.pendingInserts.size())
+            .description("Выданные refresh-токены, ещё не записанные в БД")
+            .register(meterRegistry);
+        this.reuseDetected = Counter.builder("auth.refresh.reuse")
+            .description("Повторные предъявления погашенного refresh-токена")
+            .register(meterRegistry);
+    }
+
+    /** Первый handle новой цепочки (логин, SSO). */
+    public RefreshHandle issue(UUID userId) {
+        return issueInFamily(UUID.randomUUID(), userId, null);
+    }
+
+    /**
+     * Погашает {@code handle} и выдаёт следующий в той же цепочке.
+     *
+     * @param issuedAt {@code iat} предъявленного токена
+     * @throws RefreshTokenRejectedException handle неизвестен, цепочка отозвана, handle уже погашен
+     *     или пользователь заблокирован / сменил пароль после {@code issuedAt}
+     * @throws DataAccessException погашение не записано — handle остаётся действительным
+     */
+    public RefreshHandle rotate(String handle, UUID userId, Instant issuedAt) {
+        byte[] hash = sha256(handle);
+        Entry e = lookup(hash);
+        if (e == null || !e.token.userId().equals(userId)) {
+            throw new RefreshTokenRejectedException("unknown");
+        }
+        if (revokedFamilies.getIfPresent(e.token.familyId()) != null) {
+            throw new RefreshTokenRejectedException("family_revoked");
+        }
+        // погашен на этой реплике — отказ без обращения к БД
+        if (!e.consumed.compareAndSet(false, true)) {
+            throw reuse(e.token);
+        }
+        boolean consumed;
+        try {
+            consumed = dao.consume(e.token, clock.instant(), issuedAt);
+        } catch (DataAccessException ex) {
+            e.consumed.set(false);
+            throw ex;
+        }
+        if (!consumed) {
+            throw notConsumed(e.token);
+        }
+        return issueInFamily(e.token.familyId(), userId, hash);
+    }
+
+    /**
+     * Обмен refresh-токена, выданного до ротации (без {@code jti}). Погашается SHA-256 самого токена,
+     * и первый обмен начинает новую цепочку; повторный обмен — повтор, и эта цепочка отзывается.
+     *
+     * @throws RefreshTokenRejectedException токен уже обменивался или пользователь заблокирован /
+     *     сменил пароль после {@code issuedAt}
+     */
+    public RefreshHandle rotateLegacy(String refreshToken, UUID userId, Instant issuedAt, Instant expiresAt) {
+        byte[] hash = sha256(refreshToken);
+        Instant exp = expiresAt != null ? expiresAt : clock.instant().plus(TTL);
+        IssuedRefreshToken legacy = new IssuedRefreshToken(hash, UUID.randomUUID(), null, userId, exp);
+        if (!dao.consume(legacy, clock.instant(), issuedAt)) {
+            throw notConsumed(legacy);
+        }
+        return issueInFamily(legacy.familyId(), userId, hash);
+    }
+
+    /** Отзыв цепочки по её handle (logout); {@code false}, если handle не найден. */
+    public boolean revoke(String handle, UUID userId) {
+        Entry e = lookup(sha256(handle));
+        if (e == null || !e.token.userId().equals(userId)) {
+            return false;
+        }
+        revokeFamily(e.token.familyId(), userId);
+        return true;
+    }
+
+    /** Отзывает цепочку целиком: ни один её handle больше не обменяется на токены. */
+    public void revokeFamily(UUID familyId, UUID userId) {
+        revokedFamilies.put(familyId, Boolean.TRUE);
+        try {
+            dao.revokeFamily(familyId, userId, clock.instant());
+        } catch (DataAccessException ex) {
+            log.error("Refresh family revocation not persisted familyId={}", familyId, ex);
+        }
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.auth.refresh.flush-interval-ms:1000}",
+        initialDelayString = "${app.auth.refresh.flush-interval-ms:1000}"
+    )
+    public void flush() {
+        List<IssuedRefreshToken> inserts = drain(pendingInserts);
+        try {
+            // уже погашенные из пакета вставлены при погашении — ON CONFLICT их пропускает
+            dao.insertAll(inserts);
+        } catch (TransientDataAccessException ex) {
+            pendingInserts.addAll(inserts);
+            log.warn("Refresh tokens flush failed inserts={}", inserts.size(), ex);
+            return;
+        } catch (DataAccessException ex) {
+            // повтор того же пакета упадёт так же; погасить такой токен всё равно можно — погашение его вставит
+            log.error("Refresh tokens dropped inserts={}", inserts.size(), ex);
+        }
+        syncRevocations();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.auth.refresh.purge-interval-ms:3600000}",
+        initialDelayString = "${app.auth.refresh.purge-interval-ms:3600000}"
+    )
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        try {
+            int deleted = dao.deleteExpired(now, now.minus(TTL));
+            log.info("event=RefreshTokensPurged deleted={}", deleted);
+        } catch (DataAccessException ex) {
+            log.warn("Refresh tokens purge failed", ex);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private RefreshHandle issueInFamily(UUID familyId, UUID userId, byte[] parentHash) {
+        byte[] raw = new byte[32];
+        random.nextBytes(raw);
+        String handle = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        byte[] hash = sha256(handle);
+
+        IssuedRefreshToken token = new IssuedRefreshToken(hash, familyId, parentHash, userId, clock.instant().plus(TTL));
+        index.put(ByteBuffer.wrap(hash), new Entry(token, false));
+        pendingInserts.add(token);
+        return new RefreshHandle(handle, familyId);
+    }
+
+    private Entry lookup(byte[] hash) {
+        ByteBuffer key = ByteBuffer.wrap(hash);
+        Entry e = index.getIfPresent(key);
+        if (e != null) {
+            return e;
+        }
+        var stored = dao.find(hash).orElse(null);
+        if (stored == null) {
+            return null;
+        }
+        if (stored.familyRevoked()) {
+            revokedFamilies.put(stored.familyId(), Boolean.TRUE);
+        }
+        // параллельные загрузки одного handle должны делить один флаг consumed
+        IssuedRefreshToken token = new IssuedRefreshToken(hash, stored.familyId(), null, stored.userId(), stored.expiresAt());
+        return index.asMap().computeIfAbsent(key, k -> new Entry(token, stored.consumed()));
+    }
+
+    /**
+     * Условная запись не прошла: строка уже погашена — повтор; иначе токен отверг пользователь
+     * (статус или смена пароля), и его цепочка тоже отзывается.
+     */
+    private RefreshTokenRejectedException notConsumed(IssuedRefreshToken token) {
+        var stored = dao.find(token.tokenHash()).orElse(null);
+        if (stored != null && stored.consumed()) {
+            return reuse(new IssuedRefreshToken(
+                token.tokenHash(), stored.familyId(), token.parentHash(), stored.userId(), stored.expiresAt()
+            ));
+        }
+        revokeFamily(token.familyId(), token.userId());
+        return new RefreshTokenRejectedException("user_rejected");
+    }
+
+    private RefreshTokenRejectedException reuse(IssuedRefreshToken token) {
+        reuseDetected.increment();
+        log.warn("event=RefreshTokenReuse familyId={} userId={}", token.familyId(), token.userId());
+        revokeFamily(token.familyId(), token.userId());
+        return new RefreshTokenRejectedException("reuse");
+    }
+
+    private void syncRevocations() {
+        Instant now = clock.instant();
+        try {
+            for (UUID familyId : dao.findFamiliesRevokedSince(revocationsSyncedAt.minus(REVOCATION_SYNC_OVERLAP))) {
+                revokedFamilies.put(familyId, Boolean.TRUE);
+            }
+            revocationsSyncedAt = now;
+        } catch (DataAccessException ex) {
+            log.warn("Refresh revocations sync failed", ex);
+        }
+    }
+
+    private static <T> List<T> drain(Queue<T> queue) {
+        List<T> drained = new ArrayList<>();
+        for (T item; (item = queue.poll()) != null; ) {
+            drained.add(item);
+        }
+        return drained;
+    }
+
+    private static byte[] sha256(String handle) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(handle.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Handle для claim {@code jti} и цепочка, к которой он относится. */
+    public record RefreshHandle(String value, UUID familyId) { }
+
+    public static class RefreshTokenRejectedException extends RuntimeException {
+
+        private final String reason;
+
+        public RefreshTokenRejectedException(String reason) {
+            super("refresh token rejected: " + reason);
+            this.reason = reason;
+        }
+
+        public String reason() {
+            return reason;
+        }
+    }
+
+    private static final class Entry {
+
+        final IssuedRefreshToken token;
+        final AtomicBoolean consumed;
+
+        Entry(IssuedRefreshToken token, boolean consumed) {
+            this.token = token;
+            this.consumed = new AtomicBoolean(consumed);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.offerhunt.auth.domain.revocation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.offerhunt.auth.domain.dao.AccessRevocationDao;
+import com.offerhunt.auth.domain.dao.AccessRevocationDao.StoredRevocation;
+import com.offerhunt.auth.domain.token.TokenMinter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+/**
+ * Отозванные до истечения access-токены: по {@code jti} (logout) или все токены пользователя,
+ * выданные раньше момента отзыва (смена пароля, действие администратора).
+ *
+ * <p>Проверка на каждый запрос идёт через фильтр Блума — для неотозванного токена это несколько
+ * чтений битов без аллокаций; точное множество с записями до {@code exp} смотрится только при
+ * попадании в фильтр. Отзывы пишутся в БД сразу, остальные реплики дочитывают их раз в
+ * poll-interval.
+ */
+@Component
+public class AccessTokenDenylist {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenDenylist.class);
+
+    private static final long JTI_SEED = 0x6a7469L;
+    private static final long USER_SEED = 0x75736572L;
+    private static final String JTI_PREFIX = "jti:";
+    private static final String USER_PREFIX = "user:";
+    private static final Duration ACCESS_TTL = Duration.ofSeconds(TokenMinter.ACCESS_TTL_SECONDS);
+    // запас на расхождение часов реплик при чтении свежих отзывов
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final AccessRevocationDao dao;
+    private final Clock clock;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final Cache<String, Revocation> revocations;
+    private final Counter rejected;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter bloom;
+    private volatile Instant syncedAt = Instant.EPOCH;
+
+    @Autowired
+    public AccessTokenDenylist(
+        AccessRevocationDao dao,
+        MeterRegistry meterRegistry,
+        @Value("${app.security.revocation.expected-entries:100000}") long expectedEntries,
+        @Value("${app.security.revocation.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this(dao, meterRegistry, expectedEntries, falsePositiveRate, Clock.systemUTC());
+    }
+
+    AccessTokenDenylist(
+        AccessRevocationDao dao,
+        MeterRegistry meterRegistry,
+        long expectedEntries,
+        double falsePositiveRate,
+        Clock clock
+    ) {
+        this.dao = dao;
+        this.clock = clock;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloom = new BloomFilter(expectedEntries, falsePositiveRate);
+        this.revocations = Caffeine.newBuilder()
+            .expireAfter(new UntilExpiry())
+            .build();
+
+        Gauge.builder("auth.access.revocations", revocations, Cache::estimatedSize)
+            .description("Действующие отзывы access-токенов в памяти")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("auth.access.revoked.rejected")
+            .description("Запросы с отозванным access-токеном")
+            .register(meterRegistry);
+        this.falsePositives = Counter.builder("auth.access.revocations.bloom.false.positive")
+            .description("Попадания в фильтр Блума без отзыва")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        sync();
+    }
+
+    public boolean isRevoked(Jwt jwt) {
+        return isRevoked(jwt.getId(), jwt.getSubject(), jwt.getIssuedAt());
+    }
+
+    /** То же по уже разобранным claims (ответ интроспекции из кеша). */
+    public boolean isRevoked(String jti, String subject, Instant iat) {
+        if (jti != null && bloom.mightContain(JTI_SEED, jti)) {
+            if (revocations.getIfPresent(JTI_PREFIX + jti) != null) {
+                rejected.increment();
+                return true;
+            }
+            falsePositives.increment();
+        }
+        if (subject != null && bloom.mightContain(USER_SEED, subject)) {
+            Revocation r = revocations.getIfPresent(USER_PREFIX + subject);
+            if (r == null) {
+                falsePositives.increment();
+                return false;
+            }
+            // без iat токен нельзя отличить от выданного после отзыва — считаем отозванным
+            if (iat == null || iat.isBefore(r.notBefore())) {
+                rejected.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Отзыв одного токена; запись нужна только до его {@code exp}. */
+    public void revokeToken(String jti, Instant expiresAt) {
+        Instant now = clock.instant();
+        if (!expiresAt.isAfter(now)) {
+            return;
+        }
+        String key = JTI_PREFIX + jti;
+        apply(key, null, expiresAt);
+        persist(key, null, expiresAt, now);
+    }
+
+    /**
+     * Отзыв всех access-токенов пользователя, выданных до текущей секунды ({@code iat} хранится
+     * с точностью до секунды, поэтому токены из той же секунды остаются действительными).
+     */
+    public void revokeUser(UUID userId) {
+        Instant now = clock.instant();
+        Instant notBefore = now.truncatedTo(ChronoUnit.SECONDS);
+        String key = USER_PREFIX + userId;
+        Instant expiresAt = notBefore.plus(ACCESS_TTL);
+        apply(key, notBefore, expiresAt);
+        persist(key, notBefore, expiresAt, now);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.security.revocation.poll-interval-ms:1000}",
+        initialDelayString = "${app.security.revocation.poll-interval-ms:1000}"
+    )
+    public void sync() {
+        Instant now = clock.instant();
+        Instant since = Instant.EPOCH.equals(syncedAt) ? Instant.EPOCH : syncedAt.minus(SYNC_OVERLAP);
+        try {
+            for (StoredRevocation r : dao.findSince(since, now)) {
+                apply(r.key(), r.notBefore(), r.expiresAt());
+            }
+            syncedAt = now;
+        } catch (DataAccessException ex) {
+            log.warn("Access revocations sync failed", ex);
+        }
+    }
+
+    /** Удаляет истёкшие отзывы из БД и пересобирает фильтр без их битов. */
+    @Scheduled(
+        fixedDelayString = "${app.security.revocation.purge-interval-ms:300000}",
+        initialDelayString = "${app.security.revocation.purge-interval-ms:300000}"
+    )
+    public void purge() {
+        revocations.cleanUp();
+        synchronized (this) {
+            BloomFilter rebuilt = new BloomFilter(expectedEntries, falsePositiveRate);
+            revocations.asMap().keySet().forEach(key -> putBloom(rebuilt, key));
+            bloom = rebuilt;
+        }
+        try {
+            dao.deleteExpired(clock.instant());
+        } catch (DataAccessException ex) {
+            log.warn("Access revocations purge failed", ex);
+        }
+    }
+
+    // под тем же монитором, что и пересборка, чтобы новый ключ не потерялся при замене фильтра
+    private synchronized void apply(String key, Instant notBefore, Instant expiresAt) {
+        revocations.asMap().merge(key, new Revocation(notBefore, expiresAt), Revocation::latest);
+        putBloom(bloom, key);
+    }
+
+    private void persist(String key, Instant notBefore, Instant expiresAt, Instant now) {
+        try {
+            dao.upsert(key, notBefore, expiresAt, now);
+        } catch (DataAccessException ex) {
+            log.error("Access revocation not persisted key={}", key, ex);
+        }
+    }
+
+    private static void putBloom(BloomFilter filter, String key) {
+        if (key.startsWith(JTI_PREFIX)) {
+            filter.put(JTI_SEED, key.substring(JTI_PREFIX.length()));
+        } else if (key.startsWith(USER_PREFIX)) {
+            filter.put(USER_SEED, key.substring(USER_PREFIX.length()));
+        }
+    }
+
+    private record Revocation(Instant notBefore, Instant expiresAt) {
+
+        Revocation latest(Revocation other) {
+            Instant nb = notBefore == null ? other.notBefore
+                : other.notBefore == null || notBefore.isAfter(other.notBefore) ? notBefore : other.notBefore;
+            Instant exp = expiresAt.isAfter(other.expiresAt) ? expiresAt : other.expiresAt;
+            return new Revocation(nb, exp);
+        }
+    }
+
+    private final class UntilExpiry implements Expiry<String, Revocation> {
+
+        @Override
+        public long expireAfterCreate(String key, Revocation r, long currentTime) {
+            return Math.max(0, Duration.between(clock.instant(), r.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Revocation r, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, r, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Revocation r, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
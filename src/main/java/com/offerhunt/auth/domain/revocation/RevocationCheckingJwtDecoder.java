@@ -0,0 +1,30 @@
+package com.offerhunt.auth.domain.revocation;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Проверка отзыва поверх декодера ресурс-сервера. Стоит снаружи кеша проверенных токенов:
+ * закешированный токен после отзыва тоже должен отклоняться.
+ */
+public class RevocationCheckingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final AccessTokenDenylist denylist;
+
+    public RevocationCheckingJwtDecoder(JwtDecoder delegate, AccessTokenDenylist denylist) {
+        this.delegate = delegate;
+        this.denylist = denylist;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = delegate.decode(token);
+        if (denylist.isRevoked(jwt)) {
+            throw new BadJwtException("Token has been revoked");
+        }
+        return jwt;
+    }
+}
@@ -2,12 +2,17 @@ package com.offerhunt.auth.domain.service;
 
 import com.offerhunt.auth.domain.dao.PasswordResetTokenRepo;
 import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.metrics.AuthStageRecorder;
 import com.offerhunt.auth.domain.model.PasswordResetToken;
 import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.domain.password.PasswordHasher;
+import com.offerhunt.auth.domain.revocation.AccessTokenDenylist;
+import com.offerhunt.auth.domain.status.UserStatusCache;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,7 +20,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -27,26 +31,35 @@ public class PasswordRecoveryService {
 
     private final UserRepo userRepo;
     private final PasswordResetTokenRepo passwordResetTokenRepo;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final PasswordResetMailService mailService;
     private final PasswordResetTokenGenerator tokenGenerator;
+    private final AuthStageRecorder stages;
+    private final AccessTokenDenylist denylist;
+    private final UserStatusCache statuses;
     private final long ttlSeconds;
     private final String resetBaseUrl;
 
     public PasswordRecoveryService(
         UserRepo userRepo,
         PasswordResetTokenRepo passwordResetTokenRepo,
-        PasswordEncoder passwordEncoder,
+        PasswordHasher passwordHasher,
         PasswordResetMailService mailService,
         PasswordResetTokenGenerator tokenGenerator,
+        AuthStageRecorder stages,
+        AccessTokenDenylist denylist,
+        UserStatusCache statuses,
         @Value("${app.auth.password-reset.ttl-seconds:3600}") long ttlSeconds,
         @Value("${app.password-reset.base-url:http://localhost:3000/auth/reset-password}") String resetBaseUrl
     ) {
         this.userRepo = userRepo;
         this.passwordResetTokenRepo = passwordResetTokenRepo;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.mailService = mailService;
         this.tokenGenerator = tokenGenerator;
+        this.stages = stages;
+        this.denylist = denylist;
+        this.statuses = statuses;
         this.ttlSeconds = ttlSeconds;
         this.resetBaseUrl = resetBaseUrl;
     }
@@ -58,7 +71,7 @@ public class PasswordRecoveryService {
     public void initiateRecovery(String email, String requestIp, String userAgent) {
         String normalizedEmail = email.toLowerCase(Locale.ROOT);
         UserEntity user;
-        try {
+        try (var stage = stages.start(AuthStageRecorder.FLOW_RECOVERY, "lookup")) {
             user = userRepo.findByEmail(normalizedEmail).orElse(null);
         } catch (DataAccessException ex) {
             log.error("Password recovery failed – db error", ex);
@@ -86,7 +99,7 @@ public class PasswordRecoveryService {
             userAgent
         );
 
-        try {
+        try (var stage = stages.start(AuthStageRecorder.FLOW_RECOVERY, "token_insert")) {
             passwordResetTokenRepo.saveAndFlush(token);
         } catch (DataAccessException ex) {
             log.error("Password recovery failed – db error", ex);
@@ -98,54 +111,65 @@ public class PasswordRecoveryService {
             .build(true)
             .toUriString();
 
-        mailService.sendResetLink(user.getEmail(), url);
+        try (var stage = stages.start(AuthStageRecorder.FLOW_RECOVERY, "mail_send")) {
+            mailService.sendResetLink(user.getEmail(), url);
+        }
         log.info("Password recovery – email sent");
     }
 
     /**
-     * Сброс пароля по токену.
+     * Сброс пароля по токену. Без общей транзакции: не держим соединение с БД, пока идёт
+     * хеширование; токен гасится вместе со сменой хеша одним условным UPDATE.
      */
-    @Transactional
     public void resetPassword(String rawToken, String newPassword) {
         String tokenHash = hashToken(rawToken);
 
         PasswordResetToken token;
-        try {
+        try (var stage = stages.start(AuthStageRecorder.FLOW_RESET, "lookup")) {
             token = passwordResetTokenRepo.findByTokenHash(tokenHash).orElse(null);
         } catch (DataAccessException ex) {
             log.error("Password reset failed – db error", ex);
             throw new PasswordResetDbException();
         }
 
-        Instant now = Instant.now();
-
         if (token == null
-            || (token.getExpiresAt() != null && token.getExpiresAt().isBefore(now))
+            || (token.getExpiresAt() != null && token.getExpiresAt().isBefore(Instant.now()))
             || token.getUsedAt() != null) {
 
             log.info("Password reset failed – invalid token");
             throw new InvalidTokenException();
         }
+        // id из прокси без загрузки пользователя
+        UUID userId = token.getUser().getId();
 
-        UserEntity user = token.getUser();
-        user.setPasswordHash(passwordEncoder.encode(newPassword));
-        user.setUpdatedAt(now);
-        token.setUsedAt(now);
+        String newHash;
+        try (var stage = stages.start(AuthStageRecorder.FLOW_RESET, "hash")) {
+            newHash = passwordHasher.encode(newPassword);
+        }
 
-        try {
-            // благодаря @Transactional и managed-сущностям можно было бы не звать save(),
-            // но явно вызываем, чтобы отловить DataAccessException
-            userRepo.save(user);
-            passwordResetTokenRepo.save(token);
+        Instant now = Instant.now();
+        int updated;
+        try (var stage = stages.start(AuthStageRecorder.FLOW_RESET, "update")) {
+            updated = passwordResetTokenRepo.resetPassword(
+                token.getId(), newHash, now, now.truncatedTo(ChronoUnit.SECONDS)
+            );
         } catch (DataAccessException ex) {
             log.error("Password reset failed – db error", ex);
             throw new PasswordResetDbException();
         }
+        if (updated == 0) {
+            // токен погасил параллельный сброс, пока шло хеширование
+            log.info("Password reset failed – invalid token");
+            throw new InvalidTokenException();
+        }
+        statuses.invalidate(userId);
+        denylist.revokeUser(userId);
 
         log.info("Password reset success");
     }
 
-    private String hashToken(String rawToken) {
+    // package-private: меряется в ResetTokenBenchmark
+    static String hashToken(String rawToken) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
             byte[] digest = md.digest(rawToken.getBytes(StandardCharsets.UTF_8));
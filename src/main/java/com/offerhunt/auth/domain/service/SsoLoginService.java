@@ -1,10 +1,9 @@
 package com.offerhunt.auth.domain.service;
 
 import com.offerhunt.auth.api.dto.TokenResponse;
-import com.offerhunt.auth.domain.dao.SsoAccountRepo;
-import com.offerhunt.auth.domain.dao.UserRepo;
-import com.offerhunt.auth.domain.model.SsoAccount;
-import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.domain.dao.SsoLoginDao;
+import com.offerhunt.auth.domain.dao.SsoLoginDao.SsoLogin;
+import com.offerhunt.auth.domain.metrics.AuthStageRecorder;
 import java.time.Instant;
 import java.util.Locale;
 import java.util.Optional;
@@ -14,21 +13,24 @@ import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class SsoLoginService {
 
     private static final Logger log = LoggerFactory.getLogger(SsoLoginService.class);
 
-    private final UserRepo userRepo;
-    private final SsoAccountRepo ssoAccountRepo;
+    private final SsoLoginDao ssoLoginDao;
     private final UserService userService;
+    private final AuthStageRecorder stages;
 
-    public SsoLoginService(UserRepo userRepo, SsoAccountRepo ssoAccountRepo, UserService userService) {
-        this.userRepo = userRepo;
-        this.ssoAccountRepo = ssoAccountRepo;
+    public SsoLoginService(
+        SsoLoginDao ssoLoginDao,
+        UserService userService,
+        AuthStageRecorder stages
+    ) {
+        this.ssoLoginDao = ssoLoginDao;
         this.userService = userService;
+        this.stages = stages;
     }
 
     /**
@@ -44,16 +46,19 @@ public class SsoLoginService {
 
     /**
      * Результат SSO-логина.
+     *
+     * @param linkedEmail email из существующей привязки (см. {@link SsoLogin#linkedEmail()})
      */
     public record LoginResult(
         TokenResponse tokens,
-        boolean newUser
+        boolean newUser,
+        String linkedEmail
     ) { }
 
     /**
-     * Основной алгоритм (см. мини-промт): всё внутри REQUIRED транзакции.
+     * Находит или создаёт пользователя и привязку одним запросом ({@link SsoLoginDao}) и выдаёт токены.
+     * Подтверждённый провайдером email, совпадающий с email пользователя, отмечается подтверждённым.
      */
-    @Transactional
     public LoginResult login(SsoProfile profile) {
         String provider = profile.provider();
         String providerForLog = "google".equals(provider)
@@ -63,134 +68,49 @@ public class SsoLoginService {
         Instant now = Instant.now();
         String normalizedEmail = profile.email().toLowerCase(Locale.ROOT);
 
-        // a) ищем привязку по (provider, provider_user_id)
-        SsoAccount ssoAccount;
-        try {
-            ssoAccount = ssoAccountRepo
-                .findByProviderAndProviderUserId(provider, profile.providerUserId())
-                .orElse(null);
-        } catch (DataAccessException ex) {
-            log.error("{} OAuth failed – db error", providerForLog, ex);
-            throw new DbUnavailableException();
-        }
-
-        if (ssoAccount != null) {
-            UserEntity user = ssoAccount.getUser();
-            touchLogin(user, ssoAccount, now, normalizedEmail, profile.emailVerified());
-            TokenResponse tokens = userService.mintTokens(user.getId(), user.getGlobalRole());
-            log.info("{} OAuth success – existing user", providerForLog);
-            return new LoginResult(tokens, false);
-        }
-
-        // b) привязки нет — ищем пользователя по email
-        UserEntity user;
-        try {
-            user = userRepo.findByEmail(normalizedEmail).orElse(null);
+        Optional<SsoLogin> login;
+        try (var stage = stages.start(AuthStageRecorder.FLOW_SSO, "upsert")) {
+            login = upsert(profile, normalizedEmail, now);
+            if (login.isEmpty()) {
+                // параллельный первый вход с тем же email создал пользователя раньше нас —
+                // повтор увидит его и только добавит привязку
+                login = upsert(profile, normalizedEmail, now);
+            }
+        } catch (DataIntegrityViolationException ex) {
+            log.error("{} OAuth failed – insert error", providerForLog, ex);
+            throw new InsertFailedException();
         } catch (DataAccessException ex) {
             log.error("{} OAuth failed – db error", providerForLog, ex);
             throw new DbUnavailableException();
         }
 
-        boolean newUser = false;
-
-        if (user == null) {
-            // создаём нового пользователя
-            user = new UserEntity(
-                UUID.randomUUID(),
-                normalizedEmail,
-                null,
-                profile.displayName()
-            );
-            user.setCreatedAt(now);
-            user.setUpdatedAt(now);
-            user.setLastLoginAt(now);
-            if (profile.emailVerified()) {
-                user.setEmailVerifiedAt(now);
-            }
-
-            try {
-                user = userRepo.saveAndFlush(user);
-            } catch (DataAccessException ex) {
-                log.error("{} OAuth failed – insert error", providerForLog, ex);
-                throw new InsertFailedException();
-            }
-
-            newUser = true;
-        } else {
-            // существующий пользователь по email
-            touchUserLogin(user, now, normalizedEmail, profile.emailVerified());
-        }
-
-        try {
-            createSsoAccount(profile, user, now);
-        } catch (DataIntegrityViolationException ex) {
-            try {
-                Optional<SsoAccount> existing =
-                    ssoAccountRepo.findByProviderAndProviderUserId(provider, profile.providerUserId());
-                if (existing.isPresent()) {
-                    touchLogin(user, existing.get(), now, normalizedEmail, profile.emailVerified());
-                } else {
-                    log.error("{} OAuth failed – insert error", providerForLog, ex);
-                    throw new InsertFailedException();
-                }
-            } catch (DataAccessException ex2) {
-                log.error("{} OAuth failed – db error", providerForLog, ex2);
-                throw new DbUnavailableException();
-            }
-        } catch (DataAccessException ex) {
-            log.error("{} OAuth failed – insert error", providerForLog, ex);
+        if (login.isEmpty()) {
+            log.error("{} OAuth failed – insert error: user not resolved", providerForLog);
             throw new InsertFailedException();
         }
 
-        if (newUser) {
+        SsoLogin l = login.get();
+        if (l.created()) {
             log.info("{} OAuth success – new user", providerForLog);
         } else {
             log.info("{} OAuth success – existing user", providerForLog);
         }
 
-        TokenResponse tokens = userService.mintTokens(user.getId(), user.getGlobalRole());
-        return new LoginResult(tokens, newUser);
+        TokenResponse tokens = userService.mintTokens(l.userId(), l.globalRole());
+        return new LoginResult(tokens, l.created(), l.linkedEmail());
     }
 
-    private void createSsoAccount(SsoProfile profile, UserEntity user, Instant now) {
-        SsoAccount account = new SsoAccount(
+    private Optional<SsoLogin> upsert(SsoProfile profile, String normalizedEmail, Instant now) {
+        return ssoLoginDao.upsert(
             profile.provider(),
             profile.providerUserId(),
-            user,
+            normalizedEmail,
             profile.email(),
             profile.emailVerified(),
-            now,
+            profile.displayName(),
+            UUID.randomUUID(),
             now
         );
-        ssoAccountRepo.saveAndFlush(account);
-        touchUserLogin(user, now, profile.email().toLowerCase(Locale.ROOT), profile.emailVerified());
-    }
-
-    private void touchLogin(
-        UserEntity user,
-        SsoAccount account,
-        Instant now,
-        String normalizedEmail,
-        boolean emailVerified
-    ) {
-        account.setLastLoginAt(now);
-        touchUserLogin(user, now, normalizedEmail, emailVerified);
-    }
-
-    private void touchUserLogin(
-        UserEntity user,
-        Instant now,
-        String normalizedEmail,
-        boolean emailVerified
-    ) {
-        user.setLastLoginAt(now);
-        user.setUpdatedAt(now);
-        if (emailVerified
-            && user.getEmail() != null
-            && normalizedEmail.equalsIgnoreCase(user.getEmail())
-            && user.getEmailVerifiedAt() == null) {
-            user.setEmailVerifiedAt(now);
-        }
     }
 
     public static class DbUnavailableException extends RuntimeException { }
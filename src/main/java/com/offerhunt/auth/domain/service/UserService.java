@@ -4,24 +4,31 @@ import com.offerhunt.auth.api.dto.LoginRequest;
 import com.offerhunt.auth.api.dto.RegisterRequest;
 import com.offerhunt.auth.api.dto.TokenResponse;
 import com.offerhunt.auth.api.exception.DuplicateEmailException;
+import com.offerhunt.auth.domain.dao.UserCredentials;
+import com.offerhunt.auth.domain.dao.UserRegistrationDao;
 import com.offerhunt.auth.domain.dao.UserRepo;
-import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.domain.lockout.LoginAttemptTracker;
+import com.offerhunt.auth.domain.metrics.AuthStageRecorder;
+import com.offerhunt.auth.domain.password.PasswordHasher;
+import com.offerhunt.auth.domain.refresh.RefreshTokenStore;
+import com.offerhunt.auth.domain.refresh.RefreshTokenStore.RefreshHandle;
+import com.offerhunt.auth.domain.refresh.RefreshTokenStore.RefreshTokenRejectedException;
+import com.offerhunt.auth.domain.revocation.AccessTokenDenylist;
+import com.offerhunt.auth.domain.status.UserStatusCache;
+import com.offerhunt.auth.domain.token.ReferenceTokenStore;
+import com.offerhunt.auth.domain.token.TokenMinter;
 import java.time.Instant;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserService {
@@ -29,131 +36,222 @@ public class UserService {
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepo repo;
-    private final PasswordEncoder pe;
-    private final JwtEncoder jwtEncoder;
+    private final UserRegistrationDao registrations;
+    private final PasswordHasher hasher;
+    private final LoginAttemptTracker attempts;
+    private final AuthStageRecorder stages;
+    private final TokenMinter tokenMinter;
+    private final RefreshTokenStore refreshTokens;
+    private final AccessTokenDenylist denylist;
+    private final UserStatusCache statuses;
     private final JwtDecoder refreshJwtDecoder;
-
-    @Value("${app.audience:offerhunt-api}")
-    private String audience;
-
-    @Value("${app.issuer:http://localhost:8080}")
-    private String issuer;
+    private final ReferenceTokenStore referenceTokens;
+    private final boolean referenceAccessTokens;
 
     public UserService(
         UserRepo repo,
-        PasswordEncoder pe,
-        JwtEncoder jwtEncoder,
-        @Qualifier("localJwtDecoder") JwtDecoder refreshJwtDecoder
+        UserRegistrationDao registrations,
+        PasswordHasher hasher,
+        LoginAttemptTracker attempts,
+        AuthStageRecorder stages,
+        TokenMinter tokenMinter,
+        RefreshTokenStore refreshTokens,
+        AccessTokenDenylist denylist,
+        UserStatusCache statuses,
+        @Qualifier("localJwtDecoder") JwtDecoder refreshJwtDecoder,
+        ReferenceTokenStore referenceTokens,
+        @Value("${app.auth.reference-tokens.enabled:false}") boolean referenceAccessTokens
     ) {
         this.repo = repo;
-        this.pe = pe;
-        this.jwtEncoder = jwtEncoder;
+        this.registrations = registrations;
+        this.hasher = hasher;
+        this.attempts = attempts;
+        this.stages = stages;
+        this.tokenMinter = tokenMinter;
+        this.refreshTokens = refreshTokens;
+        this.denylist = denylist;
+        this.statuses = statuses;
         this.refreshJwtDecoder = refreshJwtDecoder;
+        this.referenceTokens = referenceTokens;
+        this.referenceAccessTokens = referenceAccessTokens;
     }
 
-    @Transactional
+    /**
+     * Хеш считается до обращения к БД, соединение занято ровно на один INSERT ... ON CONFLICT.
+     */
     public UUID register(RegisterRequest r) {
         final String email = r.email().toLowerCase();
         log.info("event=RegistrationInitiated email={}", email);
 
-        if (repo.existsByEmail(email)) {
-            log.info("event=RegistrationFailed reason=email_exists email={}", email);
-            throw new DuplicateEmailException(email);
-        }
-
-        try {
-            UserEntity saved = repo.saveAndFlush(
-                new UserEntity(
-                    UUID.randomUUID(),
-                    email,
-                    pe.encode(r.password()),
-                    r.fullName()
-                )
-            );
-            log.info("event=RegistrationSuccess userId={} email={}", saved.getId(), saved.getEmail());
-            return saved.getId();
-        } catch (DataIntegrityViolationException dup) {
-            log.info("event=RegistrationFailed reason=email_exists email={}", email);
-            throw new DuplicateEmailException(email);
-        }
+        String passwordHash = hasher.encode(r.password());
+        UUID userId = registrations.insertIfAbsent(UUID.randomUUID(), email, passwordHash, r.fullName())
+            .orElseThrow(() -> {
+                log.info("event=RegistrationFailed reason=email_exists email={}", email);
+                return new DuplicateEmailException(email);
+            });
+        log.info("event=RegistrationSuccess userId={} email={}", userId, email);
+        return userId;
     }
 
-    @Transactional(readOnly = true)
+    // без общей транзакции: не держим соединение с БД, пока идёт хеширование
     public TokenResponse login(LoginRequest r) {
-        UserEntity u = repo.findByEmail(r.email().toLowerCase())
-            .orElseThrow(() -> new IllegalArgumentException("user not found"));
-        if (u.getPasswordHash() == null || !pe.matches(r.password(), u.getPasswordHash())) {
+        UserCredentials u;
+        try (var stage = stages.start(AuthStageRecorder.FLOW_LOGIN, "lookup")) {
+            u = repo.findCredentialsByEmail(r.email().toLowerCase())
+                .orElseThrow(() -> new IllegalArgumentException("user not found"));
+        }
+        if (attempts.isLocked(u.id(), u.lockedUntil())) {
+            log.info("event=LoginRejected reason=locked userId={}", u.id());
+            throw new AccountLockedException();
+        }
+        boolean matches;
+        try (var stage = stages.start(AuthStageRecorder.FLOW_LOGIN, "hash_verify")) {
+            matches = u.passwordHash() != null && hasher.matches(r.password(), u.passwordHash());
+        }
+        if (!matches) {
+            attempts.recordFailure(u.id(), u.failedLoginCount(), u.lockedUntil());
             throw new IllegalArgumentException("bad credentials");
         }
-        return mintTokens(u.getId(), u.getGlobalRole());
+        attempts.recordSuccess(u.id(), u.failedLoginCount());
+        rehashIfOutdated(u.id(), u.passwordHash(), r.password());
+        return mintTokens(u.id(), u.globalRole());
+    }
+
+    /**
+     * Прозрачно переводит хеш на текущий алгоритм/стоимость, пока у нас есть открытый пароль.
+     * Ошибки не ломают логин — перехешируем при следующем входе.
+     */
+    private void rehashIfOutdated(UUID userId, String storedHash, String rawPassword) {
+        if (!hasher.needsRehash(storedHash)) {
+            return;
+        }
+        try {
+            int updated = repo.updatePasswordHash(userId, storedHash, hasher.encode(rawPassword));
+            log.info("event=PasswordRehashed userId={} updated={}", userId, updated > 0);
+        } catch (PasswordHasher.HashingUnavailableException | DataAccessException ex) {
+            log.warn("Password rehash skipped userId={}", userId, ex);
+        }
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Обменивает refresh-токен на новую пару, погашая его {@code jti}. Токены без {@code jti},
+     * выданные до ротации, обмениваются один раз и переводятся в новую цепочку.
+     * Роль берётся из снимка пользователя, а не из старого токена; неактивному пользователю
+     * и токенам, выданным до смены пароля, обмен запрещён — снимок отсекает их сразу, а погашение
+     * в БД перепроверяет, если снимок этой реплики устарел.
+     */
     public TokenResponse refresh(String refreshToken) {
-        var jwt = refreshJwtDecoder.decode(refreshToken);
+        Jwt jwt;
+        try (var stage = stages.start(AuthStageRecorder.FLOW_REFRESH, "verify")) {
+            jwt = refreshJwtDecoder.decode(refreshToken);
+        }
         if (!"refresh".equals(jwt.getClaimAsString("typ"))) {
             throw new IllegalArgumentException("invalid refresh token");
         }
         UUID uid = UUID.fromString(jwt.getSubject());
-        String role = jwt.getClaimAsString("role");
-        return mintTokens(uid, role != null ? role : "USER");
+        UserStatusCache.Snapshot user;
+        try (var stage = stages.start(AuthStageRecorder.FLOW_REFRESH, "status")) {
+            user = statuses.get(uid);
+        }
+        // до ротации: отклонённый здесь токен не погашается и не отзывает цепочку
+        if (!user.accepts(jwt.getIssuedAt())) {
+            log.info("event=RefreshRejected reason={} userId={}", user.active() ? "password_changed" : "inactive", uid);
+            throw new IllegalArgumentException("invalid refresh token");
+        }
+        RefreshHandle next;
+        try (var stage = stages.start(AuthStageRecorder.FLOW_REFRESH, "rotate")) {
+            next = jwt.getId() == null
+                ? refreshTokens.rotateLegacy(refreshToken, uid, jwt.getIssuedAt(), jwt.getExpiresAt())
+                : refreshTokens.rotate(jwt.getId(), uid, jwt.getIssuedAt());
+        } catch (RefreshTokenRejectedException ex) {
+            log.info("event=RefreshRejected reason={} userId={}", ex.reason(), uid);
+            throw new IllegalArgumentException("invalid refresh token");
+        }
+        return mintTokens(uid, user.role(), next);
     }
 
+    /** Пара токенов с новой цепочкой refresh (логин, SSO). */
     public TokenResponse mintTokens(UUID userId, String role) {
+        return mintTokens(userId, role, refreshTokens.issue(userId));
+    }
+
+    private TokenResponse mintTokens(UUID userId, String role, RefreshHandle handle) {
         Instant now = Instant.now();
 
-        var access = JwtClaimsSet.builder()
-            .issuer(issuer)
-            .issuedAt(now)
-            .expiresAt(now.plusSeconds(900))
-            .subject(userId.toString())
-            .audience(List.of(audience))
-            .claim("scope", "api")
-            .claim("role", role)
-            .build();
-
-        var refresh = JwtClaimsSet.builder()
-            .issuer(issuer)
-            .issuedAt(now)
-            .expiresAt(now.plusSeconds(2_592_000))
-            .subject(userId.toString())
-            .claim("typ", "refresh")
-            .claim("role", role)
-            .build();
-
-        String at = jwtEncoder.encode(JwtEncoderParameters.from(access)).getTokenValue();
-        String rt = jwtEncoder.encode(JwtEncoderParameters.from(refresh)).getTokenValue();
-        return new TokenResponse("Bearer", at, 900, rt);
+        String at;
+        try (var stage = stages.start(AuthStageRecorder.FLOW_TOKEN, "access_sign")) {
+            at = referenceAccessTokens
+                ? referenceTokens.issue(userId, role, UUID.randomUUID(), now)
+                : tokenMinter.access(userId, role, UUID.randomUUID().toString(), now);
+        }
+        String rt;
+        try (var stage = stages.start(AuthStageRecorder.FLOW_TOKEN, "refresh_sign")) {
+            rt = tokenMinter.refresh(userId, role, handle.value(), now);
+        }
+        return new TokenResponse("Bearer", at, TokenMinter.ACCESS_TTL_SECONDS, rt);
+    }
+
+    /**
+     * Отзывает текущий access-токен и, если передан, цепочку refresh-токена того же пользователя.
+     * Недействительный refresh-токен не мешает выходу.
+     */
+    public void logout(Jwt accessToken, String refreshToken) {
+        UUID uid = UUID.fromString(accessToken.getSubject());
+        if (accessToken.getId() != null && accessToken.getExpiresAt() != null) {
+            denylist.revokeToken(accessToken.getId(), accessToken.getExpiresAt());
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            try {
+                Jwt rt = refreshJwtDecoder.decode(refreshToken);
+                if (rt.getId() != null && uid.toString().equals(rt.getSubject())) {
+                    refreshTokens.revoke(rt.getId(), uid);
+                }
+            } catch (JwtException ex) {
+                log.info("Logout - refresh token ignored userId={}", uid);
+            }
+        }
+        log.info("event=Logout userId={}", uid);
     }
 
-    @Transactional
+    // без общей транзакции: не держим соединение с БД, пока идёт хеширование
     public void changePassword(UUID userId, String currentPassword, String newPassword) {
-        UserEntity u;
+        String currentHash;
         try {
-            u = repo.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("user not found"));
+            currentHash = repo.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("user not found"))
+                .getPasswordHash();
         } catch (DataAccessException ex) {
             log.error("Password change failed - server error userId={}", userId, ex);
             throw new PasswordChangeDbException();
         }
 
-        if (u.getPasswordHash() == null || !pe.matches(currentPassword, u.getPasswordHash())) {
+        if (currentHash == null || !hasher.matches(currentPassword, currentHash)) {
             log.info("Password change failed - incorrect current password userId={}", userId);
             throw new IncorrectCurrentPasswordException();
         }
+        String newHash = hasher.encode(newPassword);
 
+        Instant now = Instant.now();
+        int updated;
         try {
-            u.setPasswordHash(pe.encode(newPassword));
-            u.setUpdatedAt(Instant.now());
-            repo.saveAndFlush(u);
-            log.info("Password changed userId={}", userId);
+            // с точностью iat: пара, выданная в ту же секунду после смены, остаётся рабочей
+            updated = repo.changePasswordHash(userId, currentHash, newHash, now, now.truncatedTo(ChronoUnit.SECONDS));
         } catch (DataAccessException ex) {
             log.error("Password change failed - server error userId={}", userId, ex);
             throw new PasswordChangeDbException();
         }
+        if (updated == 0) {
+            // пароль сменили параллельно, пока шло хеширование: проверенный пароль уже не текущий
+            log.info("Password change failed - changed concurrently userId={}", userId);
+            throw new IncorrectCurrentPasswordException();
+        }
+        statuses.invalidate(userId);
+        denylist.revokeUser(userId);
+        log.info("Password changed userId={}", userId);
     }
 
     public static class IncorrectCurrentPasswordException extends RuntimeException { }
     public static class PasswordChangeDbException extends RuntimeException { }
+    public static class AccountLockedException extends RuntimeException { }
 
 }
@@ -0,0 +1,94 @@
+package com.offerhunt.auth.domain.status;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.dao.UserStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Снимок роли, статуса и момента смены пароля, по которому refresh решает, выдавать ли новую пару
+ * и с какой ролью, — без запроса в БД на каждый обмен.
+ *
+ * <p>Снимок читается при первом обращении и живёт ttl. Смена пароля на этой реплике сбрасывает
+ * его сразу; роль и статус меняются вне приложения, поэтому их изменения (как и смены пароля на
+ * других репликах) доходят до снимка не позже чем через ttl. Снимок — только быстрый отказ:
+ * статус и смену пароля перепроверяет погашение refresh-токена в БД ({@code RefreshTokenDao.consume}).
+ */
+@Component
+public class UserStatusCache {
+
+    private static final String ACTIVE = "ACTIVE";
+    private static final Snapshot MISSING = new Snapshot(null, false, Long.MAX_VALUE);
+
+    private final UserRepo repo;
+    private final Cache<UUID, Snapshot> snapshots;
+
+    public UserStatusCache(
+        UserRepo repo,
+        MeterRegistry meterRegistry,
+        @Value("${app.auth.user-status.max-size:100000}") long maxSize,
+        @Value("${app.auth.user-status.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.repo = repo;
+        this.snapshots = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "auth.user.status");
+    }
+
+    /** Снимок пользователя; для удалённого — снимок, не пропускающий ни один токен. */
+    public Snapshot get(UUID userId) {
+        return snapshots.get(userId, this::load);
+    }
+
+    /**
+     * Сбрасывает снимок. Внутри транзакции — ещё и после коммита: иначе параллельный refresh
+     * успеет перечитать незакоммиченное старое состояние и продержит его до ttl.
+     */
+    public void invalidate(UUID userId) {
+        snapshots.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshots.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private Snapshot load(UUID userId) {
+        return repo.findStatusById(userId)
+            .map(UserStatusCache::toSnapshot)
+            .orElse(MISSING);
+    }
+
+    private static Snapshot toSnapshot(UserStatus s) {
+        long changedAt = s.passwordChangedAt() != null ? s.passwordChangedAt().getEpochSecond() : Long.MIN_VALUE;
+        // ролей единицы — интернированная строка вместо копии на каждого пользователя
+        return new Snapshot(s.globalRole().intern(), ACTIVE.equals(s.status()), changedAt);
+    }
+
+    /**
+     * @param passwordChangedAt epoch-секунды последней смены пароля ({@code Long.MIN_VALUE} — не менялся)
+     */
+    public record Snapshot(String role, boolean active, long passwordChangedAt) {
+
+        /** Можно ли обменять токен, выданный в {@code issuedAt}. */
+        public boolean accepts(Instant issuedAt) {
+            long iat = issuedAt != null ? issuedAt.getEpochSecond() : Long.MIN_VALUE;
+            return active && iat >= passwordChangedAt;
+        }
+    }
+}
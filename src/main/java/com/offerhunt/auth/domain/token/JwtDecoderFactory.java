@@ -0,0 +1,26 @@
+package com.offerhunt.auth.domain.token;
+
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.util.EnumSet;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+/**
+ * Декодеры JWT с ключами из {@link JWKSource}, ключ выбирается по kid из заголовка.
+ * Стандартные декодеры Spring и Nimbus знают только RSA/EC/HMAC, EdDSA они не проверяют.
+ */
+public final class JwtDecoderFactory {
+
+    private JwtDecoderFactory() {
+    }
+
+    /** Любой из {@link SigningAlgorithm} — ротация может сменить алгоритм, старые токены остаются валидны. */
+    public static NimbusJwtDecoder create(JWKSource<SecurityContext> jwkSource) {
+        return new NimbusJwtDecoder(new KeyIdJwtProcessor(jwkSource, EnumSet.allOf(SigningAlgorithm.class)));
+    }
+
+    /** Только указанный алгоритм. */
+    public static NimbusJwtDecoder create(JWKSource<SecurityContext> jwkSource, SigningAlgorithm algorithm) {
+        return new NimbusJwtDecoder(new KeyIdJwtProcessor(jwkSource, EnumSet.of(algorithm)));
+    }
+}
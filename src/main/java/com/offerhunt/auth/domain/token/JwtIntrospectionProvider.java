@@ -0,0 +1,260 @@
+package com.offerhunt.auth.domain.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.offerhunt.auth.domain.revocation.AccessTokenDenylist;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationToken;
+
+/**
+ * Интроспекция (RFC 7662, {@code /oauth2/introspect}) для JWT, выпущенных
+ * {@code UserService.mintTokens}: {@code aud} — аудитория API, и SAS о токене не знает.
+ * Токены самого Authorization Server и непрозрачные токены ({@code null} из {@link #authenticate})
+ * достаются стандартному провайдеру SAS — он учитывает их отзыв через {@code /oauth2/revoke}.
+ * Reference-токены из {@link ReferenceTokenStore} разрешаются здесь же, с теми же claims, что у JWT.
+ *
+ * <p>Ответ кешируется по SHA-256 токена до его {@code exp}, поэтому повторная интроспекция не
+ * проверяет подпись заново; недействительные токены кешируются на {@code negativeTtl}. Отзыв
+ * ({@link AccessTokenDenylist}) проверяется на каждый запрос, поверх кеша, для обоих форматов;
+ * reference-токены кеширует сам {@link ReferenceTokenStore}. Refresh-токены
+ * одноразовые и живут в {@code RefreshTokenStore} — для интроспекции они неактивны.
+ */
+public class JwtIntrospectionProvider implements AuthenticationProvider, MeterBinder {
+
+    private static final OAuth2TokenIntrospection INACTIVE = OAuth2TokenIntrospection.builder().build();
+    // токен SAS: решение «не наш» кешируется так же, как ответ
+    private static final OAuth2TokenIntrospection NOT_OURS = OAuth2TokenIntrospection.builder().build();
+
+    private final NimbusJwtDecoder decoder;
+    private final JwtDecoder references;
+    private final String audience;
+    private final OAuth2AuthorizationService authorizations;
+    private final AccessTokenDenylist denylist;
+    private final Duration negativeTtl;
+    private final Clock clock;
+    private final Cache<ByteBuffer, OAuth2TokenIntrospection> responses;
+
+    public JwtIntrospectionProvider(
+        JWKSource<SecurityContext> jwkSource,
+        String issuer,
+        String audience,
+        OAuth2AuthorizationService authorizations,
+        ReferenceTokenStore referenceTokens,
+        AccessTokenDenylist denylist,
+        long maxSize,
+        Duration negativeTtl
+    ) {
+        this(
+            jwkSource, issuer, audience, authorizations, referenceTokens, denylist, maxSize, negativeTtl,
+            Clock.systemUTC()
+        );
+    }
+
+    JwtIntrospectionProvider(
+        JWKSource<SecurityContext> jwkSource,
+        String issuer,
+        String audience,
+        OAuth2AuthorizationService authorizations,
+        ReferenceTokenStore referenceTokens,
+        AccessTokenDenylist denylist,
+        long maxSize,
+        Duration negativeTtl,
+        Clock clock
+    ) {
+        // aud проверяется в introspect: токен с чужой аудиторией не отвергается, а отдаётся SAS
+        this.decoder = JwtDecoderFactory.create(jwkSource);
+        this.decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+        this.references = new ReferenceTokenJwtDecoder(decoder, referenceTokens, issuer, audience);
+        this.audience = audience;
+        this.authorizations = authorizations;
+        this.denylist = denylist;
+        this.negativeTtl = negativeTtl;
+        this.clock = clock;
+        this.responses = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new UntilExpiry())
+            .recordStats()
+            .build();
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        var request = (OAuth2TokenIntrospectionAuthenticationToken) authentication;
+        String token = request.getToken();
+        boolean reference = ReferenceTokenStore.isReference(token);
+        if (!reference && !isJwt(token)) {
+            return null;
+        }
+        if (!(request.getPrincipal() instanceof OAuth2ClientAuthenticationToken client) || !client.isAuthenticated()) {
+            throw new OAuth2AuthenticationException(OAuth2ErrorCodes.INVALID_CLIENT);
+        }
+
+        OAuth2TokenIntrospection claims = reference
+            ? introspectReference(token)
+            : responses.get(digest(token), k -> introspect(token));
+        if (claims == NOT_OURS) {
+            return null;
+        }
+        if (claims.isActive() && denylist.isRevoked(claims.getId(), claims.getSubject(), claims.getIssuedAt())) {
+            claims = INACTIVE;
+        }
+        return new OAuth2TokenIntrospectionAuthenticationToken(token, client, claims);
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return OAuth2TokenIntrospectionAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responses, "auth.introspection");
+    }
+
+    private OAuth2TokenIntrospection introspect(String token) {
+        Jwt jwt;
+        try {
+            jwt = decoder.decode(token);
+        } catch (JwtException ex) {
+            return INACTIVE;
+        }
+        if ("refresh".equals(jwt.getClaimAsString("typ"))) {
+            return INACTIVE;
+        }
+        if (jwt.getAudience() == null || !jwt.getAudience().contains(audience)
+            || authorizations.findByToken(token, OAuth2TokenType.ACCESS_TOKEN) != null) {
+            return NOT_OURS;
+        }
+        return active(jwt);
+    }
+
+    /** Неизвестный reference-токен — не наш: такой же длины может быть непрозрачный токен SAS. */
+    private OAuth2TokenIntrospection introspectReference(String token) {
+        try {
+            return active(references.decode(token));
+        } catch (BadJwtException ex) {
+            return NOT_OURS;
+        } catch (JwtException ex) {
+            throw new OAuth2AuthenticationException(new OAuth2Error(OAuth2ErrorCodes.SERVER_ERROR), ex);
+        }
+    }
+
+    private static OAuth2TokenIntrospection active(Jwt jwt) {
+        // Builder не принимает null, поэтому отсутствующие claims просто пропускаются
+        return OAuth2TokenIntrospection.builder(true)
+            .tokenType(OAuth2AccessToken.TokenType.BEARER.getValue())
+            .claims(c -> {
+                putIfPresent(c, OAuth2TokenIntrospectionClaimNames.SUB, jwt.getSubject());
+                putIfPresent(c, OAuth2TokenIntrospectionClaimNames.IAT, jwt.getIssuedAt());
+                putIfPresent(c, OAuth2TokenIntrospectionClaimNames.EXP, jwt.getExpiresAt());
+                putIfPresent(c, OAuth2TokenIntrospectionClaimNames.NBF, jwt.getNotBefore());
+                putIfPresent(c, OAuth2TokenIntrospectionClaimNames.JTI, jwt.getId());
+                putIfPresent(c, OAuth2TokenIntrospectionClaimNames.ISS,
+                    jwt.getIssuer() != null ? jwt.getIssuer().toString() : null);
+                putIfPresent(c, OAuth2TokenIntrospectionClaimNames.AUD, jwt.getAudience());
+                putIfPresent(c, OAuth2TokenIntrospectionClaimNames.SCOPE, scopes(jwt.getClaim("scope")));
+                putIfPresent(c, "role", jwt.getClaimAsString("role"));
+            })
+            .build();
+    }
+
+    private static List<String> scopes(Object scope) {
+        if (scope instanceof Collection<?> scopes) {
+            return scopes.stream().map(Object::toString).toList();
+        }
+        if (scope instanceof String s && !s.isBlank()) {
+            return List.of(s.split(" "));
+        }
+        return null;
+    }
+
+    private static void putIfPresent(Map<String, Object> claims, String name, Object value) {
+        if (value != null) {
+            claims.put(name, value);
+        }
+    }
+
+    // JWS compact: ровно три сегмента
+    private static boolean isJwt(String token) {
+        int dots = 0;
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) == '.') {
+                dots++;
+            }
+        }
+        return dots == 2;
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private final class UntilExpiry implements Expiry<ByteBuffer, OAuth2TokenIntrospection> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, OAuth2TokenIntrospection claims, long currentTime) {
+            Instant exp = claims.getExpiresAt();
+            if (!claims.isActive() || exp == null) {
+                return negativeTtl.toNanos();
+            }
+            return Math.max(0, Duration.between(clock.instant(), exp).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(
+            ByteBuffer key,
+            OAuth2TokenIntrospection claims,
+            long currentTime,
+            long currentDuration
+        ) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+            ByteBuffer key,
+            OAuth2TokenIntrospection claims,
+            long currentTime,
+            long currentDuration
+        ) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.offerhunt.auth.domain.token;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * AES-256-GCM для приватных ключей подписи в БД. Результат — {@code iv || шифротекст+тег},
+ * kid передаётся как AAD: запись нельзя подставить под чужой kid.
+ */
+public class KeyEncryptor {
+
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey masterKey;
+    private final SecureRandom random = new SecureRandom();
+
+    public KeyEncryptor(byte[] masterKey) {
+        if (masterKey.length != 32) {
+            throw new IllegalArgumentException("master key must be 32 bytes (AES-256)");
+        }
+        this.masterKey = new SecretKeySpec(masterKey, "AES");
+    }
+
+    public byte[] encrypt(String plaintext, String kid) {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.allocate(IV_LENGTH + ciphertext.length).put(iv).put(ciphertext).array();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Cannot encrypt signing key " + kid, ex);
+        }
+    }
+
+    public String decrypt(byte[] data, String kid) {
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, data, 0, IV_LENGTH));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] plaintext = cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH);
+            return new String(plaintext, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Cannot decrypt signing key " + kid, ex);
+        }
+    }
+}
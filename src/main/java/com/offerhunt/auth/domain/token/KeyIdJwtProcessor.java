@@ -0,0 +1,94 @@
+package com.offerhunt.auth.domain.token;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.PlainJWT;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.JWTProcessor;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Проверка подписи JWT по ключу из заголовка: ключ ищется по kid, его тип и {@code alg}
+ * должны совпасть с алгоритмом токена, а сам алгоритм — входить в разрешённые.
+ * {@code JWSVerificationKeySelector} Nimbus строит матчер только для RSA/EC/HMAC.
+ * Claims здесь не проверяются: это делают OAuth2TokenValidator-ы Spring.
+ */
+class KeyIdJwtProcessor implements JWTProcessor<SecurityContext> {
+
+    private final JWKSource<SecurityContext> jwkSource;
+    private final Set<SigningAlgorithm> algorithms;
+
+    KeyIdJwtProcessor(JWKSource<SecurityContext> jwkSource, Set<SigningAlgorithm> algorithms) {
+        this.jwkSource = jwkSource;
+        this.algorithms = algorithms;
+    }
+
+    @Override
+    public JWTClaimsSet process(String token, SecurityContext context)
+        throws ParseException, BadJOSEException, JOSEException {
+        return process(JWTParser.parse(token), context);
+    }
+
+    @Override
+    public JWTClaimsSet process(JWT jwt, SecurityContext context) throws BadJOSEException, JOSEException {
+        if (jwt instanceof SignedJWT signed) {
+            return process(signed, context);
+        }
+        throw new BadJOSEException("Only signed JWTs are accepted");
+    }
+
+    @Override
+    public JWTClaimsSet process(PlainJWT jwt, SecurityContext context) throws BadJOSEException {
+        throw new BadJOSEException("Unsecured (plain) JWTs are rejected");
+    }
+
+    @Override
+    public JWTClaimsSet process(EncryptedJWT jwt, SecurityContext context) throws BadJOSEException {
+        throw new BadJOSEException("Encrypted JWTs are rejected");
+    }
+
+    @Override
+    public JWTClaimsSet process(SignedJWT jwt, SecurityContext context) throws BadJOSEException, JOSEException {
+        JWSHeader header = jwt.getHeader();
+        SigningAlgorithm algorithm = SigningAlgorithm.of(header.getAlgorithm());
+        if (algorithm == null || !algorithms.contains(algorithm)) {
+            throw new BadJOSEException("Signed JWT rejected: Another algorithm expected, or no matching key(s) found");
+        }
+        for (JWK key : candidateKeys(algorithm, header, context)) {
+            if (jwt.verify(algorithm.verifier(key))) {
+                try {
+                    return jwt.getJWTClaimsSet();
+                } catch (ParseException ex) {
+                    throw new BadJWSException("Payload of JWS object is not a valid JSON object", ex);
+                }
+            }
+        }
+        throw new BadJWSException("Signed JWT rejected: Invalid signature or no matching key(s) found");
+    }
+
+    private List<JWK> candidateKeys(SigningAlgorithm algorithm, JWSHeader header, SecurityContext context)
+        throws JOSEException {
+        JWKMatcher.Builder matcher = new JWKMatcher.Builder()
+            .keyType(algorithm.keyType())
+            .keyUses(KeyUse.SIGNATURE, null)
+            .algorithms(algorithm.jwsAlgorithm(), null);
+        if (header.getKeyID() != null) {
+            matcher.keyID(header.getKeyID());
+        }
+        return jwkSource.get(new JWKSelector(matcher.build()), context);
+    }
+}
@@ -0,0 +1,54 @@
+package com.offerhunt.auth.domain.token;
+
+import com.offerhunt.auth.domain.token.ReferenceTokenStore.Reference;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/**
+ * Разрешает reference-токены в {@link Jwt} с теми же claims, что у JWT из {@link TokenMinter};
+ * остальные токены передаёт декодеру JWT. Стоит внутри проверки отзыва: отзыв по {@code jti}
+ * и по пользователю работает для обоих форматов одинаково.
+ */
+public class ReferenceTokenJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final ReferenceTokenStore store;
+    private final String issuer;
+    private final List<String> audience;
+
+    public ReferenceTokenJwtDecoder(JwtDecoder delegate, ReferenceTokenStore store, String issuer, String audience) {
+        this.delegate = delegate;
+        this.store = store;
+        this.issuer = issuer;
+        this.audience = List.of(audience);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (!ReferenceTokenStore.isReference(token)) {
+            return delegate.decode(token);
+        }
+        Reference ref;
+        try {
+            ref = store.resolve(token).orElseThrow(() -> new BadJwtException("Unknown or expired reference token"));
+        } catch (DataAccessException ex) {
+            throw new JwtException("Reference token lookup failed", ex);
+        }
+        return Jwt.withTokenValue(token)
+            .header("typ", "reference")
+            .issuer(issuer)
+            .audience(audience)
+            .claim("scope", "api")
+            .subject(ref.userId().toString())
+            .jti(ref.jti().toString())
+            .claim("role", ref.role())
+            .issuedAt(Instant.ofEpochSecond(ref.issuedAt()))
+            .expiresAt(Instant.ofEpochSecond(ref.expiresAt()))
+            .build();
+    }
+}
@@ -0,0 +1,181 @@
+package com.offerhunt.auth.domain.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.offerhunt.auth.domain.dao.ReferenceTokenDao;
+import com.offerhunt.auth.domain.dao.ReferenceTokenDao.StoredReferenceToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Непрозрачные access-токены фиксированной длины (16 случайных байт, 22 символа Base64URL)
+ * вместо JWT — для внутренних вызовов, где токен пересылается на каждом шаге.
+ *
+ * <p>Горячий путь — кеш в памяти до {@code exp}, ключ — сами 16 байт токена. Выдача сразу
+ * пишет SHA-256 токена в БД, поэтому токен разрешается и на других репликах: промах кеша
+ * стоит одного чтения по первичному ключу, дальше запись живёт в кеше этой реплики.
+ */
+@Component
+public class ReferenceTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceTokenStore.class);
+
+    public static final int TOKEN_LENGTH = 22;
+
+    private static final int TOKEN_BYTES = 16;
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64URL_DECODER = Base64.getUrlDecoder();
+
+    private final ReferenceTokenDao dao;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+    private final Cache<Key, Reference> references;
+
+    @Autowired
+    public ReferenceTokenStore(
+        ReferenceTokenDao dao,
+        MeterRegistry meterRegistry,
+        @Value("${app.auth.reference-tokens.max-size:200000}") long maxSize
+    ) {
+        this(dao, meterRegistry, maxSize, Clock.systemUTC());
+    }
+
+    ReferenceTokenStore(ReferenceTokenDao dao, MeterRegistry meterRegistry, long maxSize, Clock clock) {
+        this.dao = dao;
+        this.clock = clock;
+        this.references = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new UntilExpiry())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, references, "auth.reference.tokens");
+    }
+
+    /** Похоже ли значение на reference-токен (JWT всегда содержит точки и длиннее). */
+    public static boolean isReference(String token) {
+        return token != null && token.length() == TOKEN_LENGTH && token.indexOf('.') < 0;
+    }
+
+    /**
+     * Выдаёт токен на {@link TokenMinter#ACCESS_TTL_SECONDS}.
+     *
+     * @throws DataAccessException запись в БД не удалась или пользователя нет — токен не выдан
+     *     и в кеш не попадает
+     */
+    public String issue(UUID userId, String role, UUID jti, Instant now) {
+        byte[] raw = new byte[TOKEN_BYTES];
+        random.nextBytes(raw);
+        String token = BASE64URL.encodeToString(raw);
+
+        long iat = now.getEpochSecond();
+        Reference ref = new Reference(jti, userId, role.intern(), iat, iat + TokenMinter.ACCESS_TTL_SECONDS);
+        dao.insert(sha256(raw), new StoredReferenceToken(
+            jti, userId, role, Instant.ofEpochSecond(ref.issuedAt()), Instant.ofEpochSecond(ref.expiresAt())
+        ));
+        references.put(Key.of(raw), ref);
+        return token;
+    }
+
+    /**
+     * Действующая запись для токена; пусто — токен неизвестен, искажён или истёк.
+     *
+     * @throws DataAccessException промах кеша и БД недоступна
+     */
+    public Optional<Reference> resolve(String token) {
+        if (!isReference(token)) {
+            return Optional.empty();
+        }
+        byte[] raw;
+        try {
+            raw = BASE64URL_DECODER.decode(token);
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        Key key = Key.of(raw);
+        Reference ref = references.getIfPresent(key);
+        if (ref == null) {
+            ref = dao.find(sha256(raw)).map(Reference::of).orElse(null);
+            if (ref == null || ref.expiresAt() <= clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            references.put(key, ref);
+        }
+        return Optional.of(ref);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.auth.reference-tokens.purge-interval-ms:3600000}",
+        initialDelayString = "${app.auth.reference-tokens.purge-interval-ms:3600000}"
+    )
+    public void purgeExpired() {
+        try {
+            int deleted = dao.deleteExpired(clock.instant());
+            log.info("Reference tokens purged deleted={}", deleted);
+        } catch (DataAccessException ex) {
+            log.warn("Reference token purge failed", ex);
+        }
+    }
+
+    private static byte[] sha256(byte[] raw) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(raw);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Содержимое токена; время — epoch-секунды. */
+    public record Reference(UUID jti, UUID userId, String role, long issuedAt, long expiresAt) {
+
+        static Reference of(StoredReferenceToken t) {
+            return new Reference(
+                t.jti(), t.userId(), t.role().intern(), t.issuedAt().getEpochSecond(), t.expiresAt().getEpochSecond()
+            );
+        }
+    }
+
+    private record Key(long hi, long lo) {
+
+        static Key of(byte[] raw) {
+            ByteBuffer b = ByteBuffer.wrap(raw);
+            return new Key(b.getLong(), b.getLong());
+        }
+    }
+
+    private final class UntilExpiry implements Expiry<Key, Reference> {
+
+        @Override
+        public long expireAfterCreate(Key key, Reference ref, long currentTime) {
+            long seconds = ref.expiresAt() - clock.instant().getEpochSecond();
+            return TimeUnit.SECONDS.toNanos(Math.max(0, seconds));
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, Reference ref, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, ref, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, Reference ref, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.offerhunt.auth.domain.token;
+
+import com.nimbusds.jose.Algorithm;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import java.util.Locale;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+
+/**
+ * Алгоритм подписи выпускаемых JWT ({@code app.security.signing-algorithm}).
+ * ES256 и EdDSA (Ed25519) подписывают на порядок быстрее RSA-2048 при сопоставимой стойкости;
+ * RS256 оставлен по умолчанию для клиентов, которые умеют только RSA.
+ */
+public enum SigningAlgorithm {
+
+    RS256(JWSAlgorithm.RS256, SignatureAlgorithm.RS256),
+    ES256(JWSAlgorithm.ES256, SignatureAlgorithm.ES256),
+    // в SignatureAlgorithm Spring нет EdDSA — Nimbus разбирает алгоритм по имени
+    EDDSA(JWSAlgorithm.EdDSA, () -> JWSAlgorithm.EdDSA.getName());
+
+    private final JWSAlgorithm jwsAlgorithm;
+    private final JwsAlgorithm jwsHeaderAlgorithm;
+
+    SigningAlgorithm(JWSAlgorithm jwsAlgorithm, JwsAlgorithm jwsHeaderAlgorithm) {
+        this.jwsAlgorithm = jwsAlgorithm;
+        this.jwsHeaderAlgorithm = jwsHeaderAlgorithm;
+    }
+
+    public static SigningAlgorithm from(String value) {
+        String v = value.trim().toUpperCase(Locale.ROOT);
+        return switch (v) {
+            case "RS256" -> RS256;
+            case "ES256" -> ES256;
+            case "EDDSA", "ED25519" -> EDDSA;
+            default -> throw new IllegalStateException("Unsupported signing algorithm: " + value);
+        };
+    }
+
+    /** По алгоритму из заголовка или JWK; {@code null}, если алгоритм не поддерживается. */
+    public static SigningAlgorithm of(Algorithm algorithm) {
+        if (algorithm == null) {
+            return null;
+        }
+        for (SigningAlgorithm a : values()) {
+            if (a.jwsAlgorithm.getName().equals(algorithm.getName())) {
+                return a;
+            }
+        }
+        return null;
+    }
+
+    /** Алгоритм для Nimbus (выбор ключа, верификация). */
+    public JWSAlgorithm jwsAlgorithm() {
+        return jwsAlgorithm;
+    }
+
+    /** Алгоритм для {@code JwsHeader} Spring Security. */
+    public JwsAlgorithm jwsHeaderAlgorithm() {
+        return jwsHeaderAlgorithm;
+    }
+
+    /** Тип JWK, которым подписывается этот алгоритм. */
+    public KeyType keyType() {
+        return switch (this) {
+            case RS256 -> KeyType.RSA;
+            case ES256 -> KeyType.EC;
+            case EDDSA -> KeyType.OKP;
+        };
+    }
+
+    /**
+     * Верификатор подписи по публичной части ключа. Фабрика Nimbus не создаёт Ed25519Verifier,
+     * поэтому верификатор выбирается здесь.
+     */
+    public JWSVerifier verifier(JWK key) throws JOSEException {
+        return switch (this) {
+            case RS256 -> new RSASSAVerifier(key.toRSAKey());
+            case ES256 -> new ECDSAVerifier(key.toECKey());
+            case EDDSA -> new Ed25519Verifier(key.toOctetKeyPair().toPublicJWK());
+        };
+    }
+
+    /**
+     * Новая пара ключей для этого алгоритма (приватная часть включена).
+     */
+    public JWK generateKey(String keyId) {
+        try {
+            return switch (this) {
+                case RS256 -> new RSAKeyGenerator(2048)
+                    .keyID(keyId).keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).generate();
+                case ES256 -> new ECKeyGenerator(Curve.P_256)
+                    .keyID(keyId).keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).generate();
+                case EDDSA -> new OctetKeyPairGenerator(Curve.Ed25519)
+                    .keyID(keyId).keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).generate();
+            };
+        } catch (JOSEException ex) {
+            throw new IllegalStateException("Cannot generate " + name() + " key", ex);
+        }
+    }
+}
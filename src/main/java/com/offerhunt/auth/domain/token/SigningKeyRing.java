@@ -0,0 +1,225 @@
+package com.offerhunt.auth.domain.token;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.offerhunt.auth.domain.dao.SigningKeyDao;
+import com.offerhunt.auth.domain.dao.SigningKeyDao.StoredSigningKey;
+import jakarta.annotation.PostConstruct;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ключи подписи, общие для всех реплик: хранятся в Postgres, приватная часть зашифрована
+ * {@link KeyEncryptor}. Подписывает самый новый уже активированный ключ; в JWKS публикуются
+ * все живые ключи — следующий заранее (publish-ahead), прежние ещё retention после замены,
+ * чтобы выданные ими токены (включая refresh) проверялись на любой реплике.
+ *
+ * <p>Ключ генерируется только при первом старте кластера и при ротации, под advisory-блокировкой;
+ * остальные реплики подхватывают изменения периодическим перечитыванием.
+ */
+@Component
+public class SigningKeyRing implements JWKSource<SecurityContext> {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyRing.class);
+
+    private final SigningKeyDao dao;
+    private final SigningAlgorithm algorithm;
+    private final KeyEncryptor encryptor;
+    private final Duration rotateAfter;
+    private final Duration publishAhead;
+    private final Duration retention;
+    private final Clock clock;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @Autowired
+    public SigningKeyRing(
+        SigningKeyDao dao,
+        SigningAlgorithm algorithm,
+        @Value("${app.security.key-ring.master-key}") String masterKey,
+        @Value("${app.security.key-ring.rotate-after-days:30}") long rotateAfterDays,
+        @Value("${app.security.key-ring.publish-ahead-minutes:60}") long publishAheadMinutes,
+        @Value("${app.security.key-ring.retention-days:31}") long retentionDays
+    ) {
+        this(
+            dao,
+            algorithm,
+            new KeyEncryptor(Base64.getDecoder().decode(masterKey)),
+            Duration.ofDays(rotateAfterDays),
+            Duration.ofMinutes(publishAheadMinutes),
+            Duration.ofDays(retentionDays),
+            Clock.systemUTC()
+        );
+    }
+
+    SigningKeyRing(
+        SigningKeyDao dao,
+        SigningAlgorithm algorithm,
+        KeyEncryptor encryptor,
+        Duration rotateAfter,
+        Duration publishAhead,
+        Duration retention,
+        Clock clock
+    ) {
+        this.dao = dao;
+        this.algorithm = algorithm;
+        this.encryptor = encryptor;
+        this.rotateAfter = rotateAfter;
+        this.publishAhead = publishAhead;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+        if (snapshot.active() == null || rotationDue(snapshot.newest(), clock.instant())) {
+            rotate();
+        }
+    }
+
+    /** Текущий ключ подписи (с приватной частью). */
+    public JWK activeKey() {
+        JWK key = snapshot.active();
+        if (key == null) {
+            throw new IllegalStateException("No active signing key");
+        }
+        return key;
+    }
+
+    public SigningAlgorithm activeAlgorithm() {
+        return SigningAlgorithm.of(activeKey().getAlgorithm());
+    }
+
+    /** Только публичные части — для JWKS и декодеров. */
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) {
+        return selector.select(snapshot.published());
+    }
+
+    /**
+     * Опубликованный набор ключей. Экземпляр меняется только при изменении состава ключей,
+     * поэтому по нему можно кешировать сериализованный JWKS.
+     */
+    public JWKSet publishedKeys() {
+        return snapshot.published();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.security.key-ring.refresh-interval-ms:60000}",
+        initialDelayString = "${app.security.key-ring.refresh-interval-ms:60000}"
+    )
+    public void refresh() {
+        try {
+            if (rotationDue(snapshot.newest(), clock.instant())) {
+                rotate();
+            } else {
+                reload();
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Signing key ring refresh failed, keeping {} published keys",
+                snapshot.published().size(), ex);
+        }
+    }
+
+    void rotate() {
+        dao.inRotationLock(() -> {
+            Instant now = clock.instant();
+            List<StoredSigningKey> live = dao.findLive(now);
+            boolean hasActive = live.stream().anyMatch(k -> !k.activatesAt().isAfter(now));
+            // другая реплика могла успеть раньше, пока мы ждали блокировку
+            if (hasActive && !rotationDue(live.get(0), now)) {
+                return;
+            }
+            Instant activatesAt = hasActive ? now.plus(publishAhead) : now;
+            String kid = UUID.randomUUID().toString();
+            JWK key = algorithm.generateKey(kid);
+            dao.insert(new StoredSigningKey(
+                kid,
+                algorithm.jwsAlgorithm().getName(),
+                key.toPublicJWK().toJSONString(),
+                encryptor.encrypt(key.toJSONString(), kid),
+                now,
+                activatesAt,
+                null
+            ));
+            dao.retireOthers(kid, activatesAt.plus(retention));
+            dao.deleteExpired(now);
+            log.info("event=SigningKeyCreated kid={} algorithm={} activatesAt={}", kid, algorithm, activatesAt);
+        });
+        reload();
+    }
+
+    void reload() {
+        Instant now = clock.instant();
+        List<StoredSigningKey> live = dao.findLive(now);
+        Snapshot previous = snapshot;
+
+        List<JWK> published = new ArrayList<>(live.size());
+        JWK active = null;
+        for (StoredSigningKey k : live) {
+            published.add(parse(k.publicJwk(), k.kid()));
+            if (active == null && !k.activatesAt().isAfter(now)) {
+                // тот же экземпляр — у энкодеров остаётся закешированный подписчик
+                active = previous.active() != null && previous.active().getKeyID().equals(k.kid())
+                    ? previous.active()
+                    : parse(encryptor.decrypt(k.encryptedPrivateJwk(), k.kid()), k.kid());
+            }
+        }
+        JWKSet publishedSet = sameKeyIds(previous.published(), published)
+            ? previous.published()
+            : new JWKSet(published);
+        snapshot = new Snapshot(active, publishedSet, live.isEmpty() ? null : live.get(0));
+
+        if (active != null && (previous.active() == null || !previous.active().getKeyID().equals(active.getKeyID()))) {
+            log.info("event=SigningKeyActivated kid={} publishedKeys={}", active.getKeyID(), published.size());
+        }
+    }
+
+    private boolean rotationDue(StoredSigningKey newest, Instant now) {
+        return newest == null
+            || !newest.algorithm().equals(algorithm.jwsAlgorithm().getName())
+            || !newest.createdAt().plus(rotateAfter).isAfter(now);
+    }
+
+    private static boolean sameKeyIds(JWKSet previous, List<JWK> current) {
+        List<JWK> keys = previous.getKeys();
+        if (keys.size() != current.size()) {
+            return false;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            if (!keys.get(i).getKeyID().equals(current.get(i).getKeyID())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static JWK parse(String json, String kid) {
+        try {
+            return JWK.parse(json);
+        } catch (ParseException ex) {
+            throw new IllegalStateException("Corrupted signing key " + kid, ex);
+        }
+    }
+
+    private record Snapshot(JWK active, JWKSet published, StoredSigningKey newest) {
+        static final Snapshot EMPTY = new Snapshot(null, new JWKSet(), null);
+    }
+}
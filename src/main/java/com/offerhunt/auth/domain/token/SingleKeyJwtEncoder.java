@@ -0,0 +1,117 @@
+package com.offerhunt.auth.domain.token;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.factories.DefaultJWSSignerFactory;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import java.net.URL;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+/**
+ * {@link JwtEncoder}, подписывающий текущим ключом кольца; {@link JWSSigner} создаётся один раз
+ * на ключ и пересоздаётся только после ротации.
+ * {@code NimbusJwtEncoder} на каждый вызов подбирает ключ через JWKMatcher, который
+ * не умеет EdDSA, и заново создаёт подписчика.
+ */
+public class SingleKeyJwtEncoder implements JwtEncoder {
+
+    private static final String ERROR = "An error occurred while attempting to encode the Jwt: ";
+
+    private final Supplier<JWK> signingKey;
+    private volatile Signing current;
+
+    public SingleKeyJwtEncoder(JWK key) {
+        this(() -> key);
+    }
+
+    public SingleKeyJwtEncoder(Supplier<JWK> signingKey) {
+        this.signingKey = signingKey;
+    }
+
+    static JWSSigner createSigner(JWK key, JWSAlgorithm algorithm) {
+        try {
+            return new DefaultJWSSignerFactory().createJWSSigner(key, algorithm);
+        } catch (JOSEException ex) {
+            throw new IllegalArgumentException("Unsupported signing key " + key.getKeyID(), ex);
+        }
+    }
+
+    static JWSAlgorithm algorithmOf(JWK key) {
+        if (key.getAlgorithm() == null) {
+            throw new IllegalArgumentException("signing key must declare its algorithm");
+        }
+        return JWSAlgorithm.parse(key.getAlgorithm().getName());
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        Signing signing = signing();
+        JWSHeader header = header(signing, parameters.getJwsHeader());
+        JwtClaimsSet claims = parameters.getClaims();
+
+        SignedJWT jwt = new SignedJWT(header, claimsSet(claims));
+        try {
+            jwt.sign(signing.signer());
+        } catch (JOSEException ex) {
+            throw new JwtEncodingException(ERROR + ex.getMessage(), ex);
+        }
+
+        return Jwt.withTokenValue(jwt.serialize())
+            .headers(h -> h.putAll(header.toJSONObject()))
+            .claims(c -> c.putAll(claims.getClaims()))
+            .build();
+    }
+
+    private Signing signing() {
+        JWK key = signingKey.get();
+        Signing s = current;
+        if (s == null || s.key() != key) {
+            JWSAlgorithm algorithm = algorithmOf(key);
+            s = new Signing(key, algorithm, createSigner(key, algorithm));
+            current = s;
+        }
+        return s;
+    }
+
+    private static JWSHeader header(Signing signing, JwsHeader requested) {
+        JWSAlgorithm algorithm = signing.algorithm();
+        if (requested != null && !algorithm.getName().equals(requested.getAlgorithm().getName())) {
+            throw new JwtEncodingException(ERROR + "no signing key for algorithm " + requested.getAlgorithm());
+        }
+        JWSHeader.Builder builder = new JWSHeader.Builder(algorithm).keyID(signing.key().getKeyID());
+        if (requested != null && requested.getType() != null) {
+            builder.type(new JOSEObjectType(requested.getType()));
+        }
+        return builder.build();
+    }
+
+    private static JWTClaimsSet claimsSet(JwtClaimsSet claims) {
+        JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+        for (Map.Entry<String, Object> e : claims.getClaims().entrySet()) {
+            Object value = e.getValue();
+            if (value instanceof Instant instant) {
+                value = Date.from(instant);
+            } else if (value instanceof URL url) {
+                value = url.toExternalForm();
+            }
+            builder.claim(e.getKey(), value);
+        }
+        return builder.build();
+    }
+
+    private record Signing(JWK key, JWSAlgorithm algorithm, JWSSigner signer) { }
+}
@@ -0,0 +1,136 @@
+package com.offerhunt.auth.domain.token;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Проверка пачки access-токенов тем же {@code jwtDecoder}, что и у ресурс-сервера
+ * (валидаторы, кеш, отзыв). Токены проверяются параллельно на пуле по числу ядер; при
+ * заполненной очереди задача выполняется в вызывающем потоке — это и есть backpressure.
+ * Future результата всегда завершается нормально: сбой декодера — недействительный токен, иначе
+ * потоковый ответ оборвался бы посреди массива.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.enabled", havingValue = "true", matchIfMissing = true)
+public class TokenBatchVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenBatchVerifier.class);
+
+    private final JwtDecoder decoder;
+    private final int maxBatchSize;
+    private final ThreadPoolExecutor executor;
+    private final DistributionSummary batchSizes;
+
+    public TokenBatchVerifier(
+        @Qualifier("jwtDecoder") JwtDecoder decoder,
+        MeterRegistry meterRegistry,
+        @Value("${app.internal.token-verify.max-batch-size:1000}") int maxBatchSize,
+        @Value("${app.internal.token-verify.threads:0}") int threads,
+        @Value("${app.internal.token-verify.queue-capacity:4096}") int queueCapacity
+    ) {
+        this.decoder = decoder;
+        this.maxBatchSize = maxBatchSize;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            new VerifierThreadFactory(),
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+
+        Gauge.builder("auth.token.verify.queue.size", executor, e -> e.getQueue().size())
+            .description("Токены, ожидающие проверки в пуле пакетной верификации")
+            .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("auth.token.verify.batch.size")
+            .description("Размер пакета на внутренней проверке токенов")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Запускает проверку всех токенов; результаты в порядке входного списка.
+     *
+     * @throws IllegalArgumentException пакет пуст или больше {@code max-batch-size}
+     */
+    public List<CompletableFuture<Result>> verify(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty() || tokens.size() > maxBatchSize) {
+            throw new IllegalArgumentException("batch size must be between 1 and " + maxBatchSize);
+        }
+        batchSizes.record(tokens.size());
+
+        List<CompletableFuture<Result>> results = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            int index = i;
+            String token = tokens.get(i);
+            results.add(CompletableFuture.supplyAsync(() -> verifyOne(index, token), executor));
+        }
+        return results;
+    }
+
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private Result verifyOne(int index, String token) {
+        if (token == null || token.isBlank()) {
+            return Result.inactive(index, "empty token");
+        }
+        try {
+            Jwt jwt = decoder.decode(token);
+            Long exp = jwt.getExpiresAt() != null ? jwt.getExpiresAt().getEpochSecond() : null;
+            return new Result(index, true, jwt.getSubject(), jwt.getClaimAsString("role"), exp, null);
+        } catch (JwtException ex) {
+            return Result.inactive(index, ex.getMessage());
+        } catch (RuntimeException ex) {
+            log.warn("Token verification failed index={}", index, ex);
+            return Result.inactive(index, "verification failed");
+        }
+    }
+
+    /** Итог проверки одного токена; {@code error} заполнен только у недействительных. */
+    public record Result(int index, boolean active, String sub, String role, Long exp, String error) {
+
+        static Result inactive(int index, String error) {
+            return new Result(index, false, null, null, null, error);
+        }
+    }
+
+    private static final class VerifierThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "token-verify-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.offerhunt.auth.domain.token;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.util.JSONStringUtils;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+/**
+ * Выпуск access/refresh токенов {@code UserService} без {@code JwtEncoder}: подписчик и
+ * Base64URL-заголовок создаются один раз, неизменные claims ({@code iss}, {@code aud},
+ * {@code scope}, {@code typ}) лежат готовыми байтами, на каждый токен дописываются только
+ * {@code sub}, {@code jti}, {@code role}, {@code iat} и {@code exp}.
+ * Формат совпадает с прежним выпуском через {@code JwtClaimsSet} и проверяется тем же декодером.
+ * Заголовок и подписчик пересоздаются только при смене ключа в кольце.
+ */
+public final class TokenMinter {
+
+    public static final long ACCESS_TTL_SECONDS = 900;
+    public static final long REFRESH_TTL_SECONDS = 2_592_000;
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final byte[] HEX = "0123456789abcdef".getBytes(US_ASCII);
+    private static final byte[] JTI = "\",\"jti\":\"".getBytes(US_ASCII);
+    private static final byte[] ROLE = "\",\"role\":".getBytes(US_ASCII);
+    private static final byte[] IAT = ",\"iat\":".getBytes(US_ASCII);
+    private static final byte[] EXP = ",\"exp\":".getBytes(US_ASCII);
+    private static final int UUID_LENGTH = 36;
+
+    private final Supplier<JWK> signingKey;
+    private final byte[] accessHead;
+    private final byte[] refreshHead;
+    private volatile Template template;
+
+    public TokenMinter(JWK signingKey, String issuer, String audience) {
+        this(() -> signingKey, issuer, audience);
+    }
+
+    public TokenMinter(Supplier<JWK> signingKey, String issuer, String audience) {
+        this.signingKey = signingKey;
+
+        String iss = "{\"iss\":" + JSONStringUtils.toJSONString(issuer);
+        this.accessHead = (iss + ",\"aud\":[" + JSONStringUtils.toJSONString(audience) + "]"
+            + ",\"scope\":\"api\",\"sub\":\"").getBytes(UTF_8);
+        this.refreshHead = (iss + ",\"typ\":\"refresh\",\"sub\":\"").getBytes(UTF_8);
+    }
+
+    /**
+     * @param jti идентификатор для отзыва (UUID или Base64URL, без экранирования)
+     */
+    public String access(UUID userId, String role, String jti, Instant now) {
+        return mint(accessHead, userId, jti.getBytes(US_ASCII), role, now.getEpochSecond(), ACCESS_TTL_SECONDS);
+    }
+
+    /**
+     * @param jti handle refresh-токена (Base64URL, без экранирования)
+     */
+    public String refresh(UUID userId, String role, String jti, Instant now) {
+        return mint(refreshHead, userId, jti.getBytes(US_ASCII), role, now.getEpochSecond(), REFRESH_TTL_SECONDS);
+    }
+
+    private String mint(byte[] head, UUID userId, byte[] jti, String role, long iat, long ttl) {
+        long exp = iat + ttl;
+        byte[] roleJson = JSONStringUtils.toJSONString(role).getBytes(UTF_8);
+        int jtiLength = JTI.length + jti.length;
+        byte[] payload = new byte[head.length + UUID_LENGTH + jtiLength + ROLE.length + roleJson.length
+            + IAT.length + digits(iat) + EXP.length + digits(exp) + 1];
+
+        int pos = put(payload, 0, head);
+        pos = putUuid(payload, pos, userId);
+        pos = put(payload, pos, JTI);
+        pos = put(payload, pos, jti);
+        pos = put(payload, pos, ROLE);
+        pos = put(payload, pos, roleJson);
+        pos = put(payload, pos, IAT);
+        pos = putLong(payload, pos, iat);
+        pos = put(payload, pos, EXP);
+        pos = putLong(payload, pos, exp);
+        payload[pos] = '}';
+
+        Template t = template();
+        byte[] encodedPayload = BASE64URL.encode(payload);
+        byte[] signingInput = new byte[t.headerPrefix().length + encodedPayload.length];
+        System.arraycopy(t.headerPrefix(), 0, signingInput, 0, t.headerPrefix().length);
+        System.arraycopy(encodedPayload, 0, signingInput, t.headerPrefix().length, encodedPayload.length);
+
+        try {
+            String signature = t.signer().sign(t.header(), signingInput).toString();
+            return new String(signingInput, US_ASCII) + "." + signature;
+        } catch (JOSEException ex) {
+            throw new JwtEncodingException("Failed to sign token: " + ex.getMessage(), ex);
+        }
+    }
+
+    private Template template() {
+        JWK key = signingKey.get();
+        Template t = template;
+        if (t == null || t.key() != key) {
+            JWSAlgorithm algorithm = SingleKeyJwtEncoder.algorithmOf(key);
+            JWSHeader header = new JWSHeader.Builder(algorithm).keyID(key.getKeyID()).build();
+            t = new Template(
+                key,
+                header,
+                (header.toBase64URL() + ".").getBytes(US_ASCII),
+                SingleKeyJwtEncoder.createSigner(key, algorithm)
+            );
+            template = t;
+        }
+        return t;
+    }
+
+    private static int put(byte[] dst, int pos, byte[] src) {
+        System.arraycopy(src, 0, dst, pos, src.length);
+        return pos + src.length;
+    }
+
+    // тот же вид, что у UUID.toString(): 8-4-4-4-12, нижний регистр
+    private static int putUuid(byte[] dst, int pos, UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        pos = putHex(dst, pos, msb >>> 32, 8);
+        dst[pos++] = '-';
+        pos = putHex(dst, pos, msb >>> 16, 4);
+        dst[pos++] = '-';
+        pos = putHex(dst, pos, msb, 4);
+        dst[pos++] = '-';
+        pos = putHex(dst, pos, lsb >>> 48, 4);
+        dst[pos++] = '-';
+        return putHex(dst, pos, lsb, 12);
+    }
+
+    private static int putHex(byte[] dst, int pos, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            dst[pos + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return pos + digits;
+    }
+
+    // epoch-секунды неотрицательны
+    private static int putLong(byte[] dst, int pos, long value) {
+        int end = pos + digits(value);
+        for (int i = end - 1; i >= pos; i--) {
+            dst[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static int digits(long value) {
+        int n = 1;
+        while (value >= 10) {
+            value /= 10;
+            n++;
+        }
+        return n;
+    }
+
+    private record Template(JWK key, JWSHeader header, byte[] headerPrefix, JWSSigner signer) { }
+}
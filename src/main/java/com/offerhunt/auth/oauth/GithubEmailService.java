@@ -8,8 +8,21 @@ public interface GithubEmailService {
     /**
      * Email GitHub-пользователя и флаг верификации.
      * Может вернуть null, если email не удалось получить.
+     *
+     * @param cached значение взято из кеша, а не получено от GitHub в этом вызове
      */
-    record GithubEmail(String email, boolean verified) { }
+    record GithubEmail(String email, boolean verified, boolean cached) {
+
+        public GithubEmail(String email, boolean verified) {
+            this(email, verified, false);
+        }
+    }
 
     GithubEmail resolveEmail(OAuth2User user, OAuth2AuthorizedClient client);
-}
\ No newline at end of file
+
+    /**
+     * Перечитывает email пользователя у GitHub в фоне, не задерживая вход, — когда закешированное
+     * значение расходится с известным приложению.
+     */
+    void refreshEmail(OAuth2User user, OAuth2AuthorizedClient client);
+}
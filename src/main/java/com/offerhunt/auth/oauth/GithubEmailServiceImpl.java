@@ -1,9 +1,30 @@
 package com.offerhunt.auth.oauth;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
@@ -12,17 +33,70 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 
+/**
+ * Email GitHub-пользователя без публичного email — через {@code GET /user/emails}.
+ *
+ * <p>Результат кешируется по id пользователя GitHub на ttl: повторный вход того же пользователя
+ * обходится без запроса к GitHub. Запись старше refresh-after отдаётся как есть и перечитывается
+ * в фоне (stale-while-revalidate); пустые ответы и ошибки не кешируются. Попадания и промахи —
+ * в {@code auth.github.emails}.
+ */
 @Service
 public class GithubEmailServiceImpl implements GithubEmailService {
 
     private static final Logger log = LoggerFactory.getLogger(GithubEmailServiceImpl.class);
 
     private final RestClient restClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Ticker ticker;
+    private final Executor refreshExecutor;
+    private final long refreshAfterNanos;
+    private final Cache<String, Entry> emails;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
 
-    public GithubEmailServiceImpl(RestClient.Builder builder) {
-        this.restClient = builder
-            .baseUrl("https://api.github.com")
+    private final Counter staleRefreshes;
+    private final Counter mismatchRefreshes;
+
+    @Autowired
+    public GithubEmailServiceImpl(
+        @Qualifier("githubRestClient") RestClient restClient,
+        @Qualifier("githubCircuitBreaker") CircuitBreaker circuitBreaker,
+        MeterRegistry meterRegistry,
+        @Value("${app.oauth2.github.email-cache.max-size:50000}") long maxSize,
+        @Value("${app.oauth2.github.email-cache.ttl-seconds:86400}") long ttlSeconds,
+        @Value("${app.oauth2.github.email-cache.refresh-after-seconds:3600}") long refreshAfterSeconds
+    ) {
+        this(
+            restClient, circuitBreaker, meterRegistry, maxSize, ttlSeconds, refreshAfterSeconds,
+            Ticker.systemTicker(), refreshPool()
+        );
+    }
+
+    GithubEmailServiceImpl(
+        RestClient restClient,
+        CircuitBreaker circuitBreaker,
+        MeterRegistry meterRegistry,
+        long maxSize,
+        long ttlSeconds,
+        long refreshAfterSeconds,
+        Ticker ticker,
+        Executor refreshExecutor
+    ) {
+        this.restClient = restClient;
+        this.circuitBreaker = circuitBreaker;
+        this.ticker = ticker;
+        this.refreshExecutor = refreshExecutor;
+        // 0 — без фонового обновления, запись живёт ровно ttl
+        this.refreshAfterNanos = refreshAfterSeconds > 0 ? TimeUnit.SECONDS.toNanos(refreshAfterSeconds) : Long.MAX_VALUE;
+        this.emails = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .ticker(ticker)
+            .recordStats()
             .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, emails, "auth.github.emails");
+        this.staleRefreshes = refreshCounter(meterRegistry, "stale");
+        this.mismatchRefreshes = refreshCounter(meterRegistry, "mismatch");
     }
 
     @Override
@@ -37,20 +111,76 @@ public class GithubEmailServiceImpl implements GithubEmailService {
             log.warn("GitHub OAuth: access token is missing while resolving email");
             return null;
         }
+        String token = client.getAccessToken().getTokenValue();
+
+        String githubId = githubId(user);
+        if (githubId != null) {
+            Entry entry = emails.getIfPresent(githubId);
+            if (entry != null) {
+                if (ticker.read() - entry.fetchedAt() >= refreshAfterNanos) {
+                    staleRefreshes.increment();
+                    refreshAsync(githubId, token);
+                }
+                return new GithubEmail(entry.email().email(), entry.email().verified(), true);
+            }
+        }
+
+        GithubEmail resolved = fetch(token);
+        if (resolved != null && githubId != null) {
+            emails.put(githubId, new Entry(resolved, ticker.read()));
+        }
+        return resolved;
+    }
+
+    @Override
+    public void refreshEmail(OAuth2User user, OAuth2AuthorizedClient client) {
+        String githubId = githubId(user);
+        if (githubId == null || client == null || client.getAccessToken() == null) {
+            return;
+        }
+        mismatchRefreshes.increment();
+        refreshAsync(githubId, client.getAccessToken().getTokenValue());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refreshExecutor instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
 
+    /** Одно обновление на пользователя за раз; при переполненной очереди обновление пропускается. */
+    private void refreshAsync(String githubId, String token) {
+        if (!refreshing.add(githubId)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    GithubEmail fresh = fetch(token);
+                    if (fresh != null) {
+                        emails.put(githubId, new Entry(fresh, ticker.read()));
+                    }
+                } finally {
+                    refreshing.remove(githubId);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(githubId);
+            log.debug("GitHub OAuth: email refresh skipped - queue is full");
+        }
+    }
+
+    private GithubEmail fetch(String token) {
         try {
-            List<Map<String, Object>> emails = restClient.get()
-                .uri("/user/emails")
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + client.getAccessToken().getTokenValue())
-                .retrieve()
-                .body(new ParameterizedTypeReference<>() {});
+            List<Map<String, Object>> entries = circuitBreaker.executeSupplier(() -> fetchEmails(token));
 
-            if (emails == null || emails.isEmpty()) {
+            if (entries == null || entries.isEmpty()) {
                 return null;
             }
 
             // primary && verified
-            Map<String, Object> primaryVerifiedEntry = emails.stream()
+            Map<String, Object> primaryVerifiedEntry = entries.stream()
                 .filter(e -> Boolean.TRUE.equals(e.get("primary")) && Boolean.TRUE.equals(e.get("verified")))
                 .findFirst()
                 .orElse(null);
@@ -63,7 +193,7 @@ public class GithubEmailServiceImpl implements GithubEmailService {
             }
 
             // fallback — первый любой email, флаг verified берём из записи
-            for (Map<String, Object> e : emails) {
+            for (Map<String, Object> e : entries) {
                 String addr = (String) e.get("email");
                 if (addr != null) {
                     boolean verified = Boolean.TRUE.equals(e.get("verified"));
@@ -71,10 +201,53 @@ public class GithubEmailServiceImpl implements GithubEmailService {
                 }
             }
 
+            return null;
+        } catch (CallNotPermittedException ex) {
+            log.warn("GitHub OAuth: /user/emails skipped - circuit breaker is {}", circuitBreaker.getState());
             return null;
         } catch (RestClientException ex) {
             log.error("GitHub OAuth: failed to call /user/emails", ex);
             return null;
         }
     }
+
+    private List<Map<String, Object>> fetchEmails(String accessToken) {
+        return restClient.get()
+            .uri("/user/emails")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+            .retrieve()
+            .body(new ParameterizedTypeReference<>() {});
+    }
+
+    private static String githubId(OAuth2User user) {
+        Object id = user.getAttribute("id");
+        return id != null ? String.valueOf(id) : null;
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.github.emails.refresh")
+            .description("Фоновые обновления закешированного email GitHub")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    /** Один поток: обновления редкие и ограничены read timeout клиента GitHub. */
+    private static ExecutorService refreshPool() {
+        return new ThreadPoolExecutor(
+            1,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(256),
+            r -> {
+                Thread t = new Thread(r, "github-email-refresh");
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /** @param fetchedAt показание {@link Ticker} в момент ответа GitHub */
+    private record Entry(GithubEmail email, long fetchedAt) { }
 }
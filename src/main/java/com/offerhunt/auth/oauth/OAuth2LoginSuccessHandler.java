@@ -164,7 +164,12 @@ public class OAuth2LoginSuccessHandler implements AuthenticationSuccessHandler {
             name
         );
 
-        return ssoLoginService.login(profile);
+        LoginResult result = ssoLoginService.login(profile);
+        if (resolved.cached() && result.linkedEmail() != null && !result.linkedEmail().equalsIgnoreCase(email)) {
+            // закешированный email расходится с email прошлого входа — перечитываем его для следующих входов
+            githubEmailService.refreshEmail(oauth2User, client);
+        }
+        return result;
     }
 
     // --- вывод ответа / редиректы ---
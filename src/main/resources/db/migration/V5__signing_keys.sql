@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS auth.auth_signing_keys (
+    kid VARCHAR(64) PRIMARY KEY,
+    algorithm VARCHAR(16) NOT NULL,
+    public_jwk TEXT NOT NULL,
+    -- AES-GCM: iv (12 байт) || шифротекст приватного JWK
+    private_jwk_enc BYTEA NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    activates_at TIMESTAMPTZ NOT NULL,
+    expires_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS ix_auth_signing_keys_activates_at
+    ON auth.auth_signing_keys (activates_at DESC);
@@ -0,0 +1,21 @@
+-- выданные refresh-токены: хранится только SHA-256 от handle (jti)
+CREATE TABLE IF NOT EXISTS auth.auth_refresh_tokens (
+    token_hash BYTEA PRIMARY KEY,
+    family_id UUID NOT NULL,
+    parent_hash BYTEA,
+    user_id UUID NOT NULL REFERENCES auth.auth_users(id) ON DELETE CASCADE,
+    expires_at TIMESTAMPTZ NOT NULL,
+    consumed_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS ix_auth_refresh_tokens_family ON auth.auth_refresh_tokens (family_id);
+CREATE INDEX IF NOT EXISTS ix_auth_refresh_tokens_expires ON auth.auth_refresh_tokens (expires_at);
+
+-- отозванные цепочки; строки живут не дольше TTL refresh-токена
+CREATE TABLE IF NOT EXISTS auth.auth_refresh_families_revoked (
+    family_id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    revoked_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS ix_auth_refresh_families_revoked_at ON auth.auth_refresh_families_revoked (revoked_at);
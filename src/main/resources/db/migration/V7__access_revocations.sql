@@ -0,0 +1,11 @@
+-- отозванные access-токены: по jti ('jti:<jti>') или все токены пользователя, выданные до not_before ('user:<id>');
+-- строка нужна только до истечения последнего затронутого токена
+CREATE TABLE IF NOT EXISTS auth.auth_access_revocations (
+    revocation_key VARCHAR(100) PRIMARY KEY,
+    not_before TIMESTAMPTZ,
+    expires_at TIMESTAMPTZ NOT NULL,
+    revoked_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS ix_auth_access_revocations_revoked_at ON auth.auth_access_revocations (revoked_at);
+CREATE INDEX IF NOT EXISTS ix_auth_access_revocations_expires ON auth.auth_access_revocations (expires_at);
@@ -0,0 +1,2 @@
+-- момент последней смены/сброса пароля: refresh-токены, выданные раньше, больше не обмениваются
+ALTER TABLE auth.auth_users ADD COLUMN IF NOT EXISTS password_changed_at TIMESTAMPTZ;
@@ -0,0 +1,11 @@
+-- непрозрачные access-токены (режим reference): хранится только SHA-256 от токена
+CREATE TABLE IF NOT EXISTS auth.auth_reference_tokens (
+    token_hash BYTEA PRIMARY KEY,
+    jti UUID NOT NULL,
+    user_id UUID NOT NULL REFERENCES auth.auth_users(id) ON DELETE CASCADE,
+    role VARCHAR(32) NOT NULL,
+    issued_at TIMESTAMPTZ NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_auth_reference_tokens_expires ON auth.auth_reference_tokens (expires_at);
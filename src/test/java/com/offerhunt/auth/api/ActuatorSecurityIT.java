@@ -0,0 +1,72 @@
+package com.offerhunt.auth.api;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerhunt.auth.api.dto.TokenResponse;
+import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.support.PostgresTCBase;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "app.security.enabled=true",
+    "app.security.use-local-key=true",
+    "app.issuer=http://localhost:8080",
+    "app.audience=offerhunt-api"
+})
+class ActuatorSecurityIT extends PostgresTCBase {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired UserRepo userRepo;
+    @Autowired PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+        userRepo.saveAndFlush(new UserEntity(
+            UUID.randomUUID(), "user@example.com", passwordEncoder.encode("Pass1234!"), "User"
+        ));
+    }
+
+    @Test
+    void health_isPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void metrics_requireAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/metrics"))
+            .andExpect(status().isUnauthorized());
+
+        TokenResponse tokens = login();
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + tokens.access_token()))
+            .andExpect(status().isForbidden());
+    }
+
+    private TokenResponse login() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("email", "user@example.com", "password", "Pass1234!"));
+        String json = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, TokenResponse.class);
+    }
+}
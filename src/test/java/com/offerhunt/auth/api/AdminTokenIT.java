@@ -0,0 +1,81 @@
+package com.offerhunt.auth.api;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerhunt.auth.api.dto.TokenResponse;
+import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.support.PostgresTCBase;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "app.security.enabled=true",
+    "app.security.use-local-key=true",
+    "app.issuer=http://localhost:8080",
+    "app.audience=offerhunt-api"
+})
+class AdminTokenIT extends PostgresTCBase {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired UserRepo userRepo;
+    @Autowired PasswordEncoder passwordEncoder;
+    @Autowired JdbcTemplate jdbc;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+        userId = UUID.randomUUID();
+        userRepo.saveAndFlush(new UserEntity(userId, "user@example.com", passwordEncoder.encode("Pass1234!"), "User"));
+        UUID adminId = UUID.randomUUID();
+        userRepo.saveAndFlush(new UserEntity(
+            adminId, "admin@example.com", passwordEncoder.encode("Pass1234!"), "Admin"
+        ));
+        jdbc.update("UPDATE auth.auth_users SET global_role = 'ADMIN' WHERE id = ?", adminId);
+    }
+
+    @Test
+    void revokeTokens_allowedForAdmin() throws Exception {
+        String admin = login("admin@example.com").access_token();
+
+        mockMvc.perform(post("/api/admin/users/{id}/revoke-tokens", userId)
+                .header("Authorization", "Bearer " + admin))
+            .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void revokeTokens_forbiddenForUser() throws Exception {
+        String user = login("user@example.com").access_token();
+
+        mockMvc.perform(post("/api/admin/users/{id}/revoke-tokens", userId)
+                .header("Authorization", "Bearer " + user))
+            .andExpect(status().isForbidden());
+    }
+
+    private TokenResponse login(String email) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("email", email, "password", "Pass1234!"));
+        String json = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, TokenResponse.class);
+    }
+}
@@ -0,0 +1,102 @@
+package com.offerhunt.auth.api;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerhunt.auth.api.dto.TokenResponse;
+import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.support.PostgresTCBase;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "app.security.enabled=true",
+    "app.security.use-local-key=true",
+    "app.issuer=http://localhost:8080",
+    "app.audience=offerhunt-api",
+    "app.internal.token-verify.max-batch-size=3"
+})
+class InternalTokenVerifyIT extends PostgresTCBase {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired UserRepo userRepo;
+    @Autowired PasswordEncoder passwordEncoder;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+        userId = UUID.randomUUID();
+        userRepo.saveAndFlush(new UserEntity(userId, "user@example.com", passwordEncoder.encode("Pass1234!"), "User"));
+    }
+
+    @Test
+    void verifiesBatch_inInputOrder() throws Exception {
+        String access = login().access_token();
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("tokens", List.of(access, access + "x")));
+
+        MvcResult started = mockMvc.perform(post("/api/internal/tokens/verify")
+                .with(jwt().authorities(new SimpleGrantedAuthority("SCOPE_tokens.verify")))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].active").value(true))
+            .andExpect(jsonPath("$[0].sub").value(userId.toString()))
+            .andExpect(jsonPath("$[0].role").value("USER"))
+            .andExpect(jsonPath("$[1].index").value(1))
+            .andExpect(jsonPath("$[1].active").value(false));
+    }
+
+    @Test
+    void requiresScope_andBoundsBatchSize() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("tokens", List.of("a", "b", "c", "d")));
+
+        mockMvc.perform(post("/api/internal/tokens/verify")
+                .with(jwt())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/internal/tokens/verify")
+                .with(jwt().authorities(new SimpleGrantedAuthority("SCOPE_tokens.verify")))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isBadRequest());
+    }
+
+    private TokenResponse login() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("email", "user@example.com", "password", "Pass1234!"));
+        String json = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, TokenResponse.class);
+    }
+}
@@ -0,0 +1,124 @@
+package com.offerhunt.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerhunt.auth.api.dto.TokenResponse;
+import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.domain.token.ReferenceTokenStore;
+import com.offerhunt.auth.support.PostgresTCBase;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "app.security.enabled=true",
+    "app.security.use-local-key=true",
+    "app.issuer=http://localhost:8080",
+    "app.audience=offerhunt-api",
+    "app.auth.reference-tokens.enabled=true",
+    "app.internal.gateway-client.secret=gateway-secret"
+})
+class ReferenceTokenIT extends PostgresTCBase {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired UserRepo userRepo;
+    @Autowired PasswordEncoder passwordEncoder;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired ReferenceTokenStore referenceTokens;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+        userId = UUID.randomUUID();
+        userRepo.saveAndFlush(new UserEntity(userId, "user@example.com", passwordEncoder.encode("Pass1234!"), "User"));
+    }
+
+    @Test
+    void referenceToken_authenticatesResolvesAndRevokes() throws Exception {
+        TokenResponse tokens = login();
+        String access = tokens.access_token();
+        assertThat(access).hasSize(ReferenceTokenStore.TOKEN_LENGTH);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM auth.auth_reference_tokens", Integer.class))
+            .isEqualTo(1);
+
+        mockMvc.perform(get("/api/me").header("Authorization", "Bearer " + access))
+            .andExpect(status().isOk());
+        mockMvc.perform(post("/api/internal/tokens/resolve")
+                .with(jwt().authorities(new SimpleGrantedAuthority("SCOPE_tokens.verify")))
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(access))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "max-age=60, private"))
+            .andExpect(jsonPath("$.sub").value(userId.toString()))
+            .andExpect(jsonPath("$.role").value("USER"));
+        mockMvc.perform(post("/oauth2/introspect")
+                .with(httpBasic("offerhunt-gateway", "gateway-secret"))
+                .param("token", access))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.active").value(true))
+            .andExpect(jsonPath("$.sub").value(userId.toString()))
+            .andExpect(jsonPath("$.role").value("USER"));
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + access))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/me").header("Authorization", "Bearer " + access))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/internal/tokens/resolve")
+                .with(jwt().authorities(new SimpleGrantedAuthority("SCOPE_tokens.verify")))
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(access))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(post("/oauth2/introspect")
+                .with(httpBasic("offerhunt-gateway", "gateway-secret"))
+                .param("token", access))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.active").value(false));
+    }
+
+    @Test
+    void issueForDeletedUser_fails() {
+        UUID missing = UUID.randomUUID();
+
+        assertThatThrownBy(() -> referenceTokens.issue(missing, "USER", UUID.randomUUID(), Instant.now()))
+            .isInstanceOf(JdbcUpdateAffectedIncorrectNumberOfRowsException.class);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM auth.auth_reference_tokens", Integer.class))
+            .isZero();
+    }
+
+    private TokenResponse login() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("email", "user@example.com", "password", "Pass1234!"));
+        String json = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, TokenResponse.class);
+    }
+}
@@ -0,0 +1,229 @@
+package com.offerhunt.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerhunt.auth.api.dto.TokenResponse;
+import com.offerhunt.auth.domain.dao.RefreshTokenDao;
+import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.domain.refresh.RefreshTokenStore;
+import com.offerhunt.auth.domain.refresh.RefreshTokenStore.RefreshHandle;
+import com.offerhunt.auth.domain.refresh.RefreshTokenStore.RefreshTokenRejectedException;
+import com.offerhunt.auth.domain.status.UserStatusCache;
+import com.offerhunt.auth.support.PostgresTCBase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "app.security.enabled=true",
+    "app.security.use-local-key=true",
+    "app.issuer=http://localhost:8080",
+    "app.audience=offerhunt-api"
+})
+class RefreshRotationIT extends PostgresTCBase {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired UserRepo userRepo;
+    @Autowired PasswordEncoder passwordEncoder;
+    @Autowired RefreshTokenStore refreshTokens;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired UserStatusCache statuses;
+    @Autowired JwtDecoder jwtDecoder;
+    @Autowired RefreshTokenDao refreshTokenDao;
+    @Autowired JwtEncoder jwtEncoder;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokens.flush();
+        userRepo.deleteAll();
+        jdbc.update("DELETE FROM auth.auth_refresh_families_revoked");
+        userRepo.saveAndFlush(new UserEntity(
+            UUID.randomUUID(), "user@example.com", passwordEncoder.encode("Pass1234!"), "User"
+        ));
+    }
+
+    @Test
+    void refreshIsSingleUse_andReuseRevokesFamily() throws Exception {
+        TokenResponse login = login();
+        TokenResponse rotated = refresh(login.refresh_token());
+
+        mockMvc.perform(post("/api/auth/refresh").param("refresh_token", login.refresh_token()))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/auth/refresh").param("refresh_token", rotated.refresh_token()))
+            .andExpect(status().isBadRequest());
+
+        refreshTokens.flush();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM auth.auth_refresh_tokens", Integer.class))
+            .isEqualTo(2);
+        assertThat(jdbc.queryForObject(
+            "SELECT count(*) FROM auth.auth_refresh_tokens WHERE consumed_at IS NOT NULL", Integer.class
+        )).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM auth.auth_refresh_families_revoked", Integer.class))
+            .isEqualTo(1);
+    }
+
+    @Test
+    void handleRotatedOnAnotherReplica_isReuseHere() {
+        UUID userId = userRepo.findByEmail("user@example.com").orElseThrow().getId();
+        RefreshTokenStore replicaA = new RefreshTokenStore(refreshTokenDao, new SimpleMeterRegistry(), 1000);
+        RefreshTokenStore replicaB = new RefreshTokenStore(refreshTokenDao, new SimpleMeterRegistry(), 1000);
+
+        RefreshHandle issued = replicaA.issue(userId);
+        replicaA.flush();
+        replicaB.rotate(issued.value(), userId, Instant.now());
+
+        // индекс A всё ещё считает handle непогашенным
+        assertThatThrownBy(() -> replicaA.rotate(issued.value(), userId, Instant.now()))
+            .isInstanceOf(RefreshTokenRejectedException.class)
+            .extracting(ex -> ((RefreshTokenRejectedException) ex).reason())
+            .isEqualTo("reuse");
+        assertThat(jdbc.queryForObject(
+            "SELECT count(*) FROM auth.auth_refresh_families_revoked WHERE family_id = ?", Integer.class, issued.familyId()
+        )).isEqualTo(1);
+    }
+
+    @Test
+    void legacyRefreshToken_isExchangedOnce_andReplayRevokesNewFamily() throws Exception {
+        UUID userId = userRepo.findByEmail("user@example.com").orElseThrow().getId();
+        Instant now = Instant.now();
+        // токен до ротации — без jti
+        String legacy = jwtEncoder.encode(JwtEncoderParameters.from(JwtClaimsSet.builder()
+            .issuer("http://localhost:8080")
+            .claim("typ", "refresh")
+            .subject(userId.toString())
+            .claim("role", "USER")
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(600))
+            .build())).getTokenValue();
+
+        TokenResponse rotated = refresh(legacy);
+
+        mockMvc.perform(post("/api/auth/refresh").param("refresh_token", legacy))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/auth/refresh").param("refresh_token", rotated.refresh_token()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void refresh_picksUpRoleChange_andDeniesInactiveUser() throws Exception {
+        TokenResponse login = login();
+        UUID userId = userRepo.findByEmail("user@example.com").orElseThrow().getId();
+
+        jdbc.update("UPDATE auth.auth_users SET global_role = 'ADMIN' WHERE id = ?", userId);
+        statuses.invalidate(userId);
+        TokenResponse rotated = refresh(login.refresh_token());
+        assertThat(jwtDecoder.decode(rotated.access_token()).getClaimAsString("role")).isEqualTo("ADMIN");
+
+        jdbc.update("UPDATE auth.auth_users SET status = 'BLOCKED' WHERE id = ?", userId);
+        statuses.invalidate(userId);
+        mockMvc.perform(post("/api/auth/refresh").param("refresh_token", rotated.refresh_token()))
+            .andExpect(status().isBadRequest());
+
+        // отказ до ротации: после разблокировки тот же токен обменивается
+        jdbc.update("UPDATE auth.auth_users SET status = 'ACTIVE' WHERE id = ?", userId);
+        statuses.invalidate(userId);
+        refresh(rotated.refresh_token());
+    }
+
+    @Test
+    void refresh_deniesTokensIssuedBeforePasswordChange() throws Exception {
+        TokenResponse login = login();
+        UUID userId = userRepo.findByEmail("user@example.com").orElseThrow().getId();
+        statuses.get(userId);
+
+        jdbc.update("UPDATE auth.auth_users SET password_changed_at = now() + interval '1 second' WHERE id = ?", userId);
+        statuses.invalidate(userId);
+        mockMvc.perform(post("/api/auth/refresh").param("refresh_token", login.refresh_token()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void passwordChangedOnAnotherReplica_killsRefreshHere() throws Exception {
+        TokenResponse login = login();
+        UUID userId = userRepo.findByEmail("user@example.com").orElseThrow().getId();
+        // снимок этой реплики прочитан до смены пароля и не сбрасывается
+        statuses.get(userId);
+        Thread.sleep(1_100);
+
+        jdbc.update(
+            "UPDATE auth.auth_users SET password_changed_at = date_trunc('second', now()) WHERE id = ?", userId
+        );
+        mockMvc.perform(post("/api/auth/refresh").param("refresh_token", login.refresh_token()))
+            .andExpect(status().isBadRequest());
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM auth.auth_refresh_families_revoked", Integer.class))
+            .isEqualTo(1);
+    }
+
+    @Test
+    void passwordChangeThroughOneReplica_rejectsRotationOnAnother() throws Exception {
+        TokenResponse login = login();
+        UUID userId = userRepo.findByEmail("user@example.com").orElseThrow().getId();
+        RefreshTokenStore replicaA = new RefreshTokenStore(refreshTokenDao, new SimpleMeterRegistry(), 1000);
+        RefreshTokenStore replicaB = new RefreshTokenStore(refreshTokenDao, new SimpleMeterRegistry(), 1000);
+        Instant issuedAt = Instant.now();
+        RefreshHandle issued = replicaA.issue(userId);
+        replicaA.flush();
+        Thread.sleep(1_100);
+
+        byte[] body = objectMapper.writeValueAsBytes(Map.of(
+            "currentPassword", "Pass1234!",
+            "newPassword", "NewPass123!",
+            "newPasswordConfirmation", "NewPass123!"
+        ));
+        mockMvc.perform(post("/api/auth/password/change")
+                .header("Authorization", "Bearer " + login.access_token())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isOk());
+
+        assertThatThrownBy(() -> replicaB.rotate(issued.value(), userId, issuedAt))
+            .isInstanceOf(RefreshTokenRejectedException.class)
+            .extracting(ex -> ((RefreshTokenRejectedException) ex).reason())
+            .isEqualTo("user_rejected");
+        assertThat(jdbc.queryForObject(
+            "SELECT count(*) FROM auth.auth_refresh_families_revoked WHERE family_id = ?",
+            Integer.class,
+            issued.familyId()
+        )).isEqualTo(1);
+    }
+
+    private TokenResponse login() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("email", "user@example.com", "password", "Pass1234!"));
+        String json = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, TokenResponse.class);
+    }
+
+    private TokenResponse refresh(String refreshToken) throws Exception {
+        String json = mockMvc.perform(post("/api/auth/refresh").param("refresh_token", refreshToken))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, TokenResponse.class);
+    }
+}
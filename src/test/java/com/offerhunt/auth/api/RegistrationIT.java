@@ -0,0 +1,71 @@
+package com.offerhunt.auth.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.support.PostgresTCBase;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RegistrationIT extends PostgresTCBase {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired UserRepo userRepo;
+    @Autowired PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void register_createsUserWithHashedPassword() throws Exception {
+        register("New.User@Example.com")
+            .andExpect(status().isCreated());
+
+        UserEntity saved = userRepo.findByEmail("new.user@example.com").orElseThrow();
+        assertThat(saved.getGlobalRole()).isEqualTo("USER");
+        assertThat(passwordEncoder.matches("StrongPass1!", saved.getPasswordHash())).isTrue();
+    }
+
+    @Test
+    void register_sameEmailDifferentCase_returns409() throws Exception {
+        register("dup@example.com").andExpect(status().isCreated());
+
+        register("DUP@example.com")
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.code").value("EMAIL_EXISTS"));
+
+        assertThat(userRepo.count()).isEqualTo(1);
+    }
+
+    private ResultActions register(String email) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of(
+            "email", email,
+            "password", "StrongPass1!",
+            "fullName", "User"
+        ));
+        return mockMvc.perform(
+            post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body)
+        );
+    }
+}
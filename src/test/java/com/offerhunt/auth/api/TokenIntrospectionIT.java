@@ -0,0 +1,114 @@
+package com.offerhunt.auth.api;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerhunt.auth.api.dto.TokenResponse;
+import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.support.PostgresTCBase;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "app.security.enabled=true",
+    "app.security.use-local-key=true",
+    "app.issuer=http://localhost:8080",
+    "app.audience=offerhunt-api",
+    "app.internal.gateway-client.secret=gateway-secret"
+})
+class TokenIntrospectionIT extends PostgresTCBase {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired UserRepo userRepo;
+    @Autowired PasswordEncoder passwordEncoder;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+        userId = UUID.randomUUID();
+        userRepo.saveAndFlush(new UserEntity(userId, "user@example.com", passwordEncoder.encode("Pass1234!"), "User"));
+    }
+
+    @Test
+    void introspectsMintedAccessToken_forRegisteredClient() throws Exception {
+        String access = login().access_token();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/oauth2/introspect")
+                    .with(httpBasic("offerhunt-gateway", "gateway-secret"))
+                    .param("token", access))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(true))
+                .andExpect(jsonPath("$.sub").value(userId.toString()))
+                .andExpect(jsonPath("$.role").value("USER"));
+        }
+        mockMvc.perform(post("/oauth2/introspect")
+                .with(httpBasic("offerhunt-gateway", "gateway-secret"))
+                .param("token", access + "x"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.active").value(false));
+    }
+
+    @Test
+    void authorizationServerToken_isInactiveAfterRevoke() throws Exception {
+        String json = mockMvc.perform(post("/oauth2/token")
+                .with(httpBasic("offerhunt-gateway", "gateway-secret"))
+                .param("grant_type", "client_credentials")
+                .param("scope", "tokens.verify"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        String access = objectMapper.readTree(json).get("access_token").asText();
+
+        mockMvc.perform(post("/oauth2/introspect")
+                .with(httpBasic("offerhunt-gateway", "gateway-secret"))
+                .param("token", access))
+            .andExpect(jsonPath("$.active").value(true));
+
+        mockMvc.perform(post("/oauth2/revoke")
+                .with(httpBasic("offerhunt-gateway", "gateway-secret"))
+                .param("token", access))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(post("/oauth2/introspect")
+                .with(httpBasic("offerhunt-gateway", "gateway-secret"))
+                .param("token", access))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.active").value(false));
+    }
+
+    @Test
+    void unknownClient_isRejected() throws Exception {
+        mockMvc.perform(post("/oauth2/introspect")
+                .with(httpBasic("offerhunt-gateway", "wrong"))
+                .param("token", "a.b.c"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    private TokenResponse login() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("email", "user@example.com", "password", "Pass1234!"));
+        String json = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, TokenResponse.class);
+    }
+}
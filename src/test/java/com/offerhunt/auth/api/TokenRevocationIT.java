@@ -0,0 +1,98 @@
+package com.offerhunt.auth.api;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerhunt.auth.api.dto.TokenResponse;
+import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.support.PostgresTCBase;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "app.security.enabled=true",
+    "app.security.use-local-key=true",
+    "app.issuer=http://localhost:8080",
+    "app.audience=offerhunt-api"
+})
+class TokenRevocationIT extends PostgresTCBase {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired UserRepo userRepo;
+    @Autowired PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+        userRepo.saveAndFlush(new UserEntity(
+            UUID.randomUUID(), "user@example.com", passwordEncoder.encode("Pass1234!"), "User"
+        ));
+    }
+
+    @Test
+    void logout_revokesAccessTokenAndRefreshFamily() throws Exception {
+        TokenResponse tokens = login("Pass1234!");
+        mockMvc.perform(get("/api/me").header("Authorization", "Bearer " + tokens.access_token()))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout")
+                .header("Authorization", "Bearer " + tokens.access_token())
+                .param("refresh_token", tokens.refresh_token()))
+            .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/me").header("Authorization", "Bearer " + tokens.access_token()))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/refresh").param("refresh_token", tokens.refresh_token()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void passwordChange_revokesEarlierAccessTokens() throws Exception {
+        TokenResponse tokens = login("Pass1234!");
+        // токены из той же секунды, что и отзыв, остаются действительными
+        Thread.sleep(1_100);
+
+        byte[] body = objectMapper.writeValueAsBytes(Map.of(
+            "currentPassword", "Pass1234!",
+            "newPassword", "NewPass123!",
+            "newPasswordConfirmation", "NewPass123!"
+        ));
+        mockMvc.perform(post("/api/auth/password/change")
+                .header("Authorization", "Bearer " + tokens.access_token())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/me").header("Authorization", "Bearer " + tokens.access_token()))
+            .andExpect(status().isUnauthorized());
+        Thread.sleep(1_100);
+        TokenResponse fresh = login("NewPass123!");
+        mockMvc.perform(get("/api/me").header("Authorization", "Bearer " + fresh.access_token()))
+            .andExpect(status().isOk());
+    }
+
+    private TokenResponse login(String password) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("email", "user@example.com", "password", password));
+        String json = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, TokenResponse.class);
+    }
+}
@@ -0,0 +1,80 @@
+package com.offerhunt.auth.api.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.netflix.concurrency.limits.limit.FixedLimit;
+import com.netflix.concurrency.limits.limiter.AbstractLimiter;
+import com.netflix.concurrency.limits.limiter.SimpleLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class AdaptiveConcurrencyFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AbstractLimiter<Void> credentials = fixed(1);
+    private final AbstractLimiter<Void> session = fixed(1);
+    private final AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(
+        Map.of(RequestLane.CREDENTIALS, credentials, RequestLane.SESSION, session),
+        registry,
+        2
+    );
+
+    @Test
+    void overLimit_returns503WithRetryAfter_andCountsRejection() throws Exception {
+        // первый логин ещё выполняется, когда приходит второй
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        FilterChain slowChain = (req, res) -> filter.doFilter(request("/api/auth/login"), second, (r2, s2) -> { });
+
+        filter.doFilter(request("/api/auth/login"), new MockHttpServletResponse(), slowChain);
+
+        assertThat(second.getStatus()).isEqualTo(503);
+        assertThat(second.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(second.getContentAsString()).contains("Сервис перегружен");
+        assertThat(registry.get("auth.concurrency.rejected").tag("lane", "credentials").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void saturatedLoginLane_doesNotBlockRefresh() throws Exception {
+        MockHttpServletResponse refresh = new MockHttpServletResponse();
+        FilterChain loginInFlight = (req, res) ->
+            filter.doFilter(request("/api/auth/refresh"), refresh, (r2, s2) -> ((MockHttpServletResponse) s2).setStatus(200));
+
+        filter.doFilter(request("/api/auth/login"), new MockHttpServletResponse(), loginInFlight);
+
+        assertThat(refresh.getStatus()).isEqualTo(200);
+        assertThat(credentials.getInflight()).isZero();
+        assertThat(session.getInflight()).isZero();
+    }
+
+    @Test
+    void lanesWithoutLimiter_passThrough() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean[] called = {false};
+
+        filter.doFilter(request("/api/profile"), response, (req, res) -> called[0] = true);
+
+        assertThat(called[0]).isTrue();
+    }
+
+    @Test
+    void laneMapping() {
+        assertThat(RequestLane.of("/api/auth/login")).isEqualTo(RequestLane.CREDENTIALS);
+        assertThat(RequestLane.of("/api/auth/password/reset")).isEqualTo(RequestLane.CREDENTIALS);
+        assertThat(RequestLane.of("/api/auth/refresh")).isEqualTo(RequestLane.SESSION);
+        assertThat(RequestLane.of("/api/me")).isEqualTo(RequestLane.SESSION);
+        assertThat(RequestLane.of("/api/profile")).isEqualTo(RequestLane.DEFAULT);
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("POST", uri);
+    }
+
+    private static AbstractLimiter<Void> fixed(int limit) {
+        return SimpleLimiter.newBuilder().limit(FixedLimit.of(limit)).build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.offerhunt.auth.api.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(10), 1_000, clock::get);
+
+    @Test
+    void allowsBurstUpToCapacity_thenRefillsOneTokenPerPeriod() {
+        assertThat(limiter.tryAcquire("1.2.3.4")).isTrue();
+        assertThat(limiter.tryAcquire("1.2.3.4")).isTrue();
+        assertThat(limiter.tryAcquire("1.2.3.4")).isTrue();
+        assertThat(limiter.tryAcquire("1.2.3.4")).isFalse();
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertThat(limiter.tryAcquire("1.2.3.4")).isTrue();
+        assertThat(limiter.tryAcquire("1.2.3.4")).isFalse();
+    }
+
+    @Test
+    void keysAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("a@example.com");
+        }
+
+        assertThat(limiter.tryAcquire("a@example.com")).isFalse();
+        assertThat(limiter.tryAcquire("b@example.com")).isTrue();
+    }
+
+    @Test
+    void idleKey_startsWithFullBucketAgain() {
+        limiter.tryAcquire("idle");
+        assertThat(limiter.trackedKeys()).isEqualTo(1);
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        limiter.tryAcquire("other");
+
+        assertThat(limiter.tryAcquire("idle")).isTrue();
+        assertThat(limiter.tryAcquire("idle")).isTrue();
+        assertThat(limiter.tryAcquire("idle")).isTrue();
+        assertThat(limiter.tryAcquire("idle")).isFalse();
+    }
+
+    @Test
+    void concurrentCallers_neverExceedCapacity() throws Exception {
+        var burst = new TokenBucketLimiter(50, Duration.ofHours(1), 1_000, clock::get);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1_000; i++) {
+            pool.submit(() -> {
+                if (burst.tryAcquire("same-key")) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(granted.get()).isEqualTo(50);
+    }
+}
@@ -0,0 +1,96 @@
+package com.offerhunt.auth.api.wellknown;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.offerhunt.auth.domain.token.SigningAlgorithm;
+import com.offerhunt.auth.domain.token.SigningKeyRing;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class WellKnownCacheFilterTest {
+
+    private final SigningKeyRing keyRing = mock(SigningKeyRing.class);
+    private final WellKnownCacheFilter filter =
+        new WellKnownCacheFilter(keyRing, Duration.ofMinutes(29), Duration.ofHours(1));
+
+    @Test
+    void jwks_isServedPublicOnly_withEtagAndMaxAge_and304OnMatch() throws Exception {
+        when(keyRing.publishedKeys()).thenReturn(new JWKSet(SigningAlgorithm.ES256.generateKey("kid-1")));
+
+        MockHttpServletResponse first = get("/oauth2/jwks", null, new AtomicInteger());
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getContentAsString()).contains("\"kid\":\"kid-1\"").doesNotContain("\"d\"");
+        assertThat(first.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("public, max-age=1740");
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+
+        MockHttpServletResponse revalidated = get("/oauth2/jwks", "W/" + etag, new AtomicInteger());
+        assertThat(revalidated.getStatus()).isEqualTo(304);
+        assertThat(revalidated.getContentLength()).isZero();
+    }
+
+    @Test
+    void jwks_etagChangesWhenKeySetChanges() throws Exception {
+        when(keyRing.publishedKeys()).thenReturn(new JWKSet(SigningAlgorithm.ES256.generateKey("kid-1")));
+        String before = get("/oauth2/jwks", null, new AtomicInteger()).getHeader(HttpHeaders.ETAG);
+
+        when(keyRing.publishedKeys()).thenReturn(new JWKSet(SigningAlgorithm.ES256.generateKey("kid-2")));
+        MockHttpServletResponse after = get("/oauth2/jwks", before, new AtomicInteger());
+
+        assertThat(after.getStatus()).isEqualTo(200);
+        assertThat(after.getHeader(HttpHeaders.ETAG)).isNotEqualTo(before);
+    }
+
+    @Test
+    void discovery_isRenderedOnceByChain_thenServedFromCache() throws Exception {
+        AtomicInteger rendered = new AtomicInteger();
+
+        MockHttpServletResponse first = get("/.well-known/openid-configuration", null, rendered);
+        MockHttpServletResponse second = get("/.well-known/openid-configuration", null, rendered);
+        MockHttpServletResponse notModified =
+            get("/.well-known/openid-configuration", first.getHeader(HttpHeaders.ETAG), rendered);
+
+        assertThat(rendered).hasValue(1);
+        assertThat(first.getContentAsString()).isEqualTo("{\"issuer\":\"http://localhost:8080\"}");
+        assertThat(first.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("public, max-age=3600");
+        assertThat(first.getHeader(HttpHeaders.PRAGMA)).isNull();
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(first.getHeader(HttpHeaders.ETAG));
+        assertThat(notModified.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void otherPathsAndMethods_passThrough() throws Exception {
+        AtomicInteger rendered = new AtomicInteger();
+        get("/api/me", null, rendered);
+
+        var post = new MockHttpServletRequest("POST", "/oauth2/jwks");
+        filter.doFilter(post, new MockHttpServletResponse(), (req, res) -> rendered.incrementAndGet());
+
+        assertThat(rendered).hasValue(2);
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch, AtomicInteger rendered) throws Exception {
+        var request = new MockHttpServletRequest("GET", path);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            rendered.incrementAndGet();
+            var http = (HttpServletResponse) res;
+            http.setHeader(HttpHeaders.PRAGMA, "no-cache");
+            http.setContentType("application/json");
+            http.getWriter().write("{\"issuer\":\"http://localhost:8080\"}");
+        });
+        return response;
+    }
+}
@@ -0,0 +1,60 @@
+package com.offerhunt.auth.domain.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.offerhunt.auth.domain.model.PasswordResetToken;
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.support.PostgresTCBase;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PasswordResetTokenRepoIT extends PostgresTCBase {
+
+    @Autowired PasswordResetTokenRepo tokenRepo;
+    @Autowired UserRepo userRepo;
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+        user = userRepo.saveAndFlush(new UserEntity(UUID.randomUUID(), "user@example.com", "{bcrypt}old", "User"));
+    }
+
+    @Test
+    void resetPassword_consumesTokenOnce() {
+        UUID tokenId = token(now.plusSeconds(3600));
+        Instant changedAt = now.truncatedTo(ChronoUnit.SECONDS);
+
+        assertThat(tokenRepo.resetPassword(tokenId, "{bcrypt}new", now, changedAt)).isEqualTo(1);
+        assertThat(tokenRepo.resetPassword(tokenId, "{bcrypt}other", now, changedAt)).isZero();
+
+        UserEntity saved = userRepo.findById(user.getId()).orElseThrow();
+        assertThat(saved.getPasswordHash()).isEqualTo("{bcrypt}new");
+        assertThat(saved.getPasswordChangedAt()).isEqualTo(changedAt);
+        assertThat(tokenRepo.findById(tokenId).orElseThrow().getUsedAt()).isEqualTo(now);
+    }
+
+    @Test
+    void resetPassword_rejectsExpiredToken() {
+        UUID tokenId = token(now.minusSeconds(1));
+
+        assertThat(tokenRepo.resetPassword(tokenId, "{bcrypt}new", now, now)).isZero();
+        assertThat(userRepo.findById(user.getId()).orElseThrow().getPasswordHash()).isEqualTo("{bcrypt}old");
+    }
+
+    private UUID token(Instant expiresAt) {
+        UUID id = UUID.randomUUID();
+        tokenRepo.saveAndFlush(new PasswordResetToken(id, user, "hash-" + id, expiresAt, "127.0.0.1", "JUnit"));
+        return id;
+    }
+}
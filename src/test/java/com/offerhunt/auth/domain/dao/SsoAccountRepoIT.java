@@ -0,0 +1,64 @@
+package com.offerhunt.auth.domain.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.offerhunt.auth.domain.model.SsoAccount;
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.support.PostgresTCBase;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SsoAccountRepoIT extends PostgresTCBase {
+
+    @Autowired SsoAccountRepo ssoAccountRepo;
+    @Autowired UserRepo userRepo;
+    @Autowired EntityManagerFactory emf;
+
+    private UUID userId;
+    private Statistics stats;
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+        userId = UUID.randomUUID();
+        UserEntity user = userRepo.saveAndFlush(new UserEntity(userId, "user@example.com", null, "User"));
+        Instant now = Instant.now();
+        ssoAccountRepo.saveAndFlush(new SsoAccount("google", "sub-1", user, "user@example.com", true, now, now));
+        ssoAccountRepo.saveAndFlush(new SsoAccount("github", "42", user, "user@example.com", true, now, now));
+
+        stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+    }
+
+    @Test
+    void findByProvider_loadsUserInSameStatement() {
+        // вне транзакции: ленивый user без графа здесь бы упал
+        SsoAccount account = ssoAccountRepo.findByProviderAndProviderUserId("google", "sub-1").orElseThrow();
+
+        assertThat(account.getUser().getId()).isEqualTo(userId);
+        assertThat(account.getUser().getGlobalRole()).isEqualTo("USER");
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByUserId_isOneStatementForAllLinks() {
+        List<SsoAccount> accounts = ssoAccountRepo.findByUserId(userId);
+
+        assertThat(accounts).hasSize(2)
+            .allSatisfy(a -> assertThat(a.getUser().getEmail()).isEqualTo("user@example.com"));
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,126 @@
+package com.offerhunt.auth.domain.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.offerhunt.auth.domain.dao.SsoLoginDao.SsoLogin;
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.support.PostgresTCBase;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SsoLoginDaoIT extends PostgresTCBase {
+
+    @Autowired SsoLoginDao dao;
+    @Autowired UserRepo userRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+    }
+
+    private Optional<SsoLogin> login(String providerUserId, String email, boolean verified) {
+        return dao.upsert("google", providerUserId, email.toLowerCase(), email, verified, "User", UUID.randomUUID(), now);
+    }
+
+    @Test
+    void newUser_createsUserAndLink() {
+        SsoLogin l = login("sub-1", "New@Example.com", true).orElseThrow();
+
+        assertThat(l.created()).isTrue();
+        assertThat(l.globalRole()).isEqualTo("USER");
+        UserEntity u = userRepo.findById(l.userId()).orElseThrow();
+        assertThat(u.getEmail()).isEqualTo("new@example.com");
+        assertThat(u.getPasswordHash()).isNull();
+        assertThat(u.getEmailVerifiedAt()).isEqualTo(now);
+        assertThat(jdbc.queryForObject(
+            "SELECT email_at_provider FROM auth.auth_user_sso_accounts WHERE user_id = ?", String.class, l.userId()
+        )).isEqualTo("New@Example.com");
+    }
+
+    @Test
+    void existingEmail_linksAndPromotesVerification() {
+        UUID userId = UUID.randomUUID();
+        userRepo.saveAndFlush(new UserEntity(userId, "user@example.com", "{bcrypt}hash", "User"));
+        jdbc.update("UPDATE auth.auth_users SET global_role = 'ADMIN' WHERE id = ?", userId);
+
+        SsoLogin l = login("sub-2", "User@Example.com", true).orElseThrow();
+
+        assertThat(l).isEqualTo(new SsoLogin(userId, "ADMIN", false, null));
+        UserEntity u = userRepo.findById(userId).orElseThrow();
+        assertThat(u.getEmailVerifiedAt()).isEqualTo(now);
+        assertThat(u.getLastLoginAt()).isEqualTo(now);
+        assertThat(jdbc.queryForObject(
+            "SELECT count(*) FROM auth.auth_user_sso_accounts WHERE user_id = ?", Integer.class, userId
+        )).isEqualTo(1);
+    }
+
+    @Test
+    void existingLink_touchesLoginWithoutPromotingForeignEmail() {
+        UUID userId = login("sub-3", "first@example.com", false).orElseThrow().userId();
+        jdbc.update("UPDATE auth.auth_user_sso_accounts SET last_login_at = NULL");
+
+        // провайдер сменил email — пользователь тот же, чужой email не подтверждается
+        SsoLogin l = login("sub-3", "second@example.com", true).orElseThrow();
+
+        assertThat(l.userId()).isEqualTo(userId);
+        assertThat(l.created()).isFalse();
+        assertThat(l.linkedEmail()).isEqualTo("first@example.com");
+        assertThat(userRepo.findById(userId).orElseThrow().getEmailVerifiedAt()).isNull();
+        assertThat(userRepo.count()).isEqualTo(1);
+        assertThat(jdbc.queryForObject(
+            "SELECT last_login_at FROM auth.auth_user_sso_accounts WHERE provider_user_id = 'sub-3'", Timestamp.class
+        ).toInstant()).isEqualTo(now);
+        // следующий вход с тем же email расхождения уже не видит
+        assertThat(login("sub-3", "second@example.com", true).orElseThrow().linkedEmail())
+            .isEqualTo("second@example.com");
+    }
+
+    @Test
+    void concurrentFirstLogins_resolveToOneUserAndLink() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<SsoLogin>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    Optional<SsoLogin> l = login("sub-race", "race@example.com", true);
+                    return l.isPresent() ? l : login("sub-race", "race@example.com", true);
+                }));
+            }
+            start.countDown();
+
+            List<UUID> ids = new ArrayList<>();
+            for (Future<Optional<SsoLogin>> f : results) {
+                ids.add(f.get().orElseThrow().userId());
+            }
+            assertThat(ids).containsOnly(ids.get(0));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(userRepo.count()).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM auth.auth_user_sso_accounts", Integer.class))
+            .isEqualTo(1);
+    }
+}
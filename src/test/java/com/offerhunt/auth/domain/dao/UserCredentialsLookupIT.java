@@ -0,0 +1,58 @@
+package com.offerhunt.auth.domain.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.support.PostgresTCBase;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserCredentialsLookupIT extends PostgresTCBase {
+
+    @Autowired UserRepo userRepo;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired TransactionTemplate tx;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+        userId = UUID.randomUUID();
+        userRepo.saveAndFlush(new UserEntity(userId, "Mixed.Case@Example.com", "{bcrypt}hash", "User"));
+    }
+
+    @Test
+    void findCredentials_isCaseInsensitive_andReturnsOnlyCredentials() {
+        UserCredentials c = userRepo.findCredentialsByEmail("mixed.case@example.com").orElseThrow();
+
+        assertThat(c.id()).isEqualTo(userId);
+        assertThat(c.passwordHash()).isEqualTo("{bcrypt}hash");
+        assertThat(c.globalRole()).isEqualTo("USER");
+        assertThat(userRepo.findCredentialsByEmail("nobody@example.com")).isEmpty();
+    }
+
+    @Test
+    void credentialsQuery_usesLowerEmailIndex() {
+        // на маленькой таблице планировщик выберет seq scan — запрещаем его, чтобы проверить, что индекс применим
+        List<String> plan = tx.execute(status -> {
+            jdbc.execute("SET LOCAL enable_seqscan = off");
+            return jdbc.queryForList(
+                "EXPLAIN SELECT id, password_hash, global_role FROM auth.auth_users WHERE lower(email) = lower(?)",
+                String.class,
+                "mixed.case@example.com"
+            );
+        });
+
+        assertThat(String.join("\n", plan)).contains("ux_auth_users_email_lower");
+    }
+}
@@ -0,0 +1,152 @@
+package com.offerhunt.auth.domain.lockout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.offerhunt.auth.domain.dao.LoginAttemptDao;
+import com.offerhunt.auth.domain.dao.LoginAttemptDao.LoginAttemptDelta;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+
+class LoginAttemptTrackerTest {
+
+    private final LoginAttemptDao dao = mock(LoginAttemptDao.class);
+    private final LoginAttemptTracker tracker = new LoginAttemptTracker(dao, 3, 900);
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void locksAfterMaxFailures_continuingFromPersistedCount() {
+        assertThat(tracker.recordFailure(userId, 1, null)).isFalse();
+        assertThat(tracker.isLocked(userId, null)).isFalse();
+
+        assertThat(tracker.recordFailure(userId, 1, null)).isTrue();
+        assertThat(tracker.isLocked(userId, null)).isTrue();
+    }
+
+    @Test
+    void persistedLock_isHonouredWithoutInMemoryEntry() {
+        assertThat(tracker.isLocked(userId, Instant.now().plusSeconds(60))).isTrue();
+        assertThat(tracker.isLocked(userId, Instant.now().minusSeconds(60))).isFalse();
+    }
+
+    @Test
+    void persistedLock_fromAnotherReplica_winsOverStaleLocalEntry() {
+        tracker.recordFailure(userId, 0, null);
+
+        assertThat(tracker.isLocked(userId, Instant.now().plusSeconds(60))).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_writesOneBatch_andResetIsPersisted() {
+        UUID other = UUID.randomUUID();
+        tracker.recordFailure(userId, 0, null);
+        tracker.recordFailure(userId, 0, null);
+        tracker.recordFailure(other, 0, null);
+
+        tracker.flush();
+
+        ArgumentCaptor<List<LoginAttemptDelta>> batch = ArgumentCaptor.forClass(List.class);
+        verify(dao).saveAll(batch.capture());
+        assertThat(batch.getValue())
+            .extracting(LoginAttemptDelta::userId, LoginAttemptDelta::failures)
+            .containsExactlyInAnyOrder(
+                tuple(userId, 2),
+                tuple(other, 1)
+            );
+        // записанные и незаблокированные записи отпускаются из памяти
+        assertThat(tracker.trackedUsers()).isZero();
+
+        tracker.recordSuccess(userId, 2);
+        tracker.flush();
+        verify(dao, times(2)).saveAll(batch.capture());
+        assertThat(batch.getValue()).containsExactly(new LoginAttemptDelta(userId, true, 0, null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_writesOnlyFailuresSinceLastWrite() {
+        tracker.recordFailure(userId, 0, null);
+        tracker.flush();
+        // запись отпущена; следующая попытка читает счётчик из БД
+        tracker.recordFailure(userId, 1, null);
+        tracker.flush();
+
+        ArgumentCaptor<List<LoginAttemptDelta>> batch = ArgumentCaptor.forClass(List.class);
+        verify(dao, times(2)).saveAll(batch.capture());
+        assertThat(batch.getAllValues()).containsExactly(
+            List.of(new LoginAttemptDelta(userId, false, 1, null)),
+            List.of(new LoginAttemptDelta(userId, false, 1, null))
+        );
+    }
+
+    @Test
+    void successWithoutFailures_touchesNothing() {
+        tracker.recordSuccess(userId, 0);
+        tracker.flush();
+
+        verify(dao, never()).saveAll(anyList());
+    }
+
+    @Test
+    void failedFlush_isRetried_withFailuresRecordedMeanwhile() {
+        doThrow(new QueryTimeoutException("db")).doNothing().when(dao).saveAll(anyList());
+        tracker.recordFailure(userId, 0, null);
+
+        tracker.flush();
+        tracker.recordFailure(userId, 0, null);
+        tracker.flush();
+
+        verify(dao, times(2)).saveAll(anyList());
+        verify(dao).saveAll(List.of(new LoginAttemptDelta(userId, false, 2, null)));
+    }
+
+    @Test
+    void concurrentFailures_areAllCounted() throws Exception {
+        var bigTracker = new LoginAttemptTracker(dao, 1_000_000, 900);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 4_000; i++) {
+            pool.submit(() -> bigTracker.recordFailure(userId, 0, null));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        bigTracker.flush();
+
+        verify(dao).saveAll(List.of(new LoginAttemptDelta(userId, false, 4_000, null)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failuresDuringFlush_areNeverLost() throws Exception {
+        var bigTracker = new LoginAttemptTracker(dao, 1_000_000, 900);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 20_000; i++) {
+            pool.submit(() -> bigTracker.recordFailure(userId, 0, null));
+        }
+        pool.shutdown();
+        while (!pool.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            bigTracker.flush();
+        }
+        bigTracker.flush();
+
+        ArgumentCaptor<List<LoginAttemptDelta>> batch = ArgumentCaptor.forClass(List.class);
+        verify(dao, atLeastOnce()).saveAll(batch.capture());
+        int written = batch.getAllValues().stream().flatMap(List::stream).mapToInt(LoginAttemptDelta::failures).sum();
+        assertThat(written).isEqualTo(20_000);
+    }
+}
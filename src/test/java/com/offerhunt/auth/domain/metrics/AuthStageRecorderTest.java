@@ -0,0 +1,56 @@
+package com.offerhunt.auth.domain.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+class AuthStageRecorderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AuthStageRecorder stages = new AuthStageRecorder(registry);
+
+    @Test
+    void stage_recordsTimerTaggedByFlowAndStage() {
+        try (var stage = stages.start(AuthStageRecorder.FLOW_LOGIN, "hash_verify")) {
+            assertThat(stage).isNotNull();
+        }
+        try (var stage = stages.start(AuthStageRecorder.FLOW_LOGIN, "hash_verify")) {
+            assertThat(stage).isNotNull();
+        }
+
+        Timer timer = registry.get("auth.stage").tag("flow", "login").tag("stage", "hash_verify").timer();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Test
+    void stage_emitsJfrEvent() throws Exception {
+        Path dump = Files.createTempFile("auth-stage", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.offerhunt.auth.Stage");
+            recording.start();
+            try (var stage = stages.start(AuthStageRecorder.FLOW_RECOVERY, "mail_send")) {
+                assertThat(stage).isNotNull();
+            }
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        Files.deleteIfExists(dump);
+        assertThat(events)
+            .filteredOn(e -> e.getEventType().getName().equals("com.offerhunt.auth.Stage"))
+            .singleElement()
+            .satisfies(e -> {
+                assertThat(e.getString("flow")).isEqualTo("recovery");
+                assertThat(e.getString("stage")).isEqualTo("mail_send");
+            });
+    }
+}
@@ -0,0 +1,30 @@
+package com.offerhunt.auth.domain.password;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class BcryptStrengthCalibratorTest {
+
+    @Test
+    void generousTarget_picksMaxStrength() {
+        var calibrator = new BcryptStrengthCalibrator(4, 6, Duration.ofSeconds(10), 3);
+
+        assertThat(calibrator.calibrate()).isEqualTo(6);
+    }
+
+    @Test
+    void unreachableTarget_neverGoesBelowMinStrength() {
+        var calibrator = new BcryptStrengthCalibrator(5, 8, Duration.ZERO, 3);
+
+        assertThat(calibrator.calibrate()).isEqualTo(5);
+    }
+
+    @Test
+    void invalidRange_rejected() {
+        assertThatThrownBy(() -> new BcryptStrengthCalibrator(12, 10, Duration.ofMillis(80), 3))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,41 @@
+package com.offerhunt.auth.domain.password;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class MatchCachingPasswordEncoderTest {
+
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+    private final MatchCachingPasswordEncoder encoder =
+        new MatchCachingPasswordEncoder(delegate, 100, Duration.ofMinutes(10));
+
+    @Test
+    void successfulMatch_isCached_failuresAreNot() {
+        when(delegate.matches("secret", "{bcrypt}hash")).thenReturn(true);
+        when(delegate.matches("wrong", "{bcrypt}hash")).thenReturn(false);
+
+        assertThat(encoder.matches("secret", "{bcrypt}hash")).isTrue();
+        assertThat(encoder.matches("secret", "{bcrypt}hash")).isTrue();
+        assertThat(encoder.matches("wrong", "{bcrypt}hash")).isFalse();
+        assertThat(encoder.matches("wrong", "{bcrypt}hash")).isFalse();
+
+        verify(delegate, times(1)).matches("secret", "{bcrypt}hash");
+        verify(delegate, times(2)).matches("wrong", "{bcrypt}hash");
+    }
+
+    @Test
+    void rotatedSecretHash_isVerifiedAgain() {
+        when(delegate.matches("secret", "{bcrypt}old")).thenReturn(true);
+        when(delegate.matches("secret", "{bcrypt}new")).thenReturn(false);
+
+        assertThat(encoder.matches("secret", "{bcrypt}old")).isTrue();
+        assertThat(encoder.matches("secret", "{bcrypt}new")).isFalse();
+    }
+}
@@ -0,0 +1,70 @@
+package com.offerhunt.auth.domain.password;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class MemoryBudgetedPasswordEncoderTest {
+
+    @Test
+    void concurrentOperations_neverExceedBudget() throws Exception {
+        ConcurrencyRecordingEncoder delegate = new ConcurrencyRecordingEncoder();
+        // 64 MiB бюджета, 19 MiB на хеш -> не более 3 одновременно
+        var encoder = new MemoryBudgetedPasswordEncoder(delegate, 64, 19);
+        assertThat(encoder.maxConcurrency()).isEqualTo(3);
+
+        ExecutorService pool = Executors.newFixedThreadPool(12);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 48; i++) {
+                futures.add(pool.submit(() -> encoder.encode("pass")));
+            }
+            for (Future<String> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(delegate.maxObserved.get()).isBetween(1, 3);
+    }
+
+    @Test
+    void hashLargerThanBudget_rejectedAtStartup() {
+        assertThatThrownBy(() -> new MemoryBudgetedPasswordEncoder(new ConcurrencyRecordingEncoder(), 16, 19))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static final class ConcurrencyRecordingEncoder implements PasswordEncoder {
+
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxObserved = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            int now = inFlight.incrementAndGet();
+            maxObserved.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
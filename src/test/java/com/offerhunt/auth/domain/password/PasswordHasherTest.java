@@ -0,0 +1,102 @@
+package com.offerhunt.auth.domain.password;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class PasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void encodeAndMatches_runOnHasherPool() {
+        PasswordHasher hasher = new PasswordHasher(new ThreadRecordingEncoder(), registry, 1, 4, 5_000L);
+
+        assertThat(hasher.encode("secret")).isEqualTo("password-hasher-1:secret");
+        assertThat(hasher.matches("secret", "secret")).isTrue();
+        assertThat(registry.get("auth.password.hash").tag("op", "encode").timer().count()).isEqualTo(1);
+        assertThat(registry.get("auth.password.hash").tag("op", "matches").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void queueFull_rejectsImmediately() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(new BlockingEncoder(), registry, 1, 1, 10_000L);
+
+        // первая задача занимает единственный поток, вторая — единственное место в очереди
+        CompletableFuture.runAsync(() -> hasher.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture.runAsync(() -> hasher.encode("b"));
+        waitForQueued(registry);
+
+        assertThatThrownBy(() -> hasher.encode("c"))
+            .isInstanceOf(PasswordHasher.HashingUnavailableException.class);
+        assertThat(registry.get("auth.password.hash.rejected").tag("reason", "queue_full").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void waitDeadlineExceeded_rejects() {
+        PasswordHasher hasher = new PasswordHasher(new BlockingEncoder(), registry, 1, 4, 50L);
+
+        assertThatThrownBy(() -> hasher.encode("slow"))
+            .isInstanceOf(PasswordHasher.HashingUnavailableException.class);
+        assertThat(registry.get("auth.password.hash.rejected").tag("reason", "timeout").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    private static void waitForQueued(SimpleMeterRegistry registry) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("auth.password.hash.queue.size").gauge().value() < 1) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("task was not queued");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static final class ThreadRecordingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return Thread.currentThread().getName() + ":" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+
+    private final class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return false;
+        }
+    }
+}
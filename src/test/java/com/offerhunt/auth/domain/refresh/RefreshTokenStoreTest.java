@@ -0,0 +1,190 @@
+package com.offerhunt.auth.domain.refresh;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.offerhunt.auth.domain.dao.RefreshTokenDao;
+import com.offerhunt.auth.domain.dao.RefreshTokenDao.IssuedRefreshToken;
+import com.offerhunt.auth.domain.dao.RefreshTokenDao.StoredRefreshToken;
+import com.offerhunt.auth.domain.refresh.RefreshTokenStore.RefreshHandle;
+import com.offerhunt.auth.domain.refresh.RefreshTokenStore.RefreshTokenRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+
+class RefreshTokenStoreTest {
+
+    private final RefreshTokenDao dao = mock(RefreshTokenDao.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RefreshTokenStore store = new RefreshTokenStore(dao, registry, 1000, Clock.systemUTC());
+    private final UUID userId = UUID.randomUUID();
+    private final Instant iat = Instant.now();
+
+    @BeforeEach
+    void setUp() {
+        when(dao.consume(any(), any(), any())).thenReturn(true);
+    }
+
+    @Test
+    void rotate_issuesNextHandleInSameFamily_withoutDbRead() {
+        RefreshHandle first = store.issue(userId);
+
+        RefreshHandle next = store.rotate(first.value(), userId, iat);
+
+        assertThat(next.value()).isNotEqualTo(first.value());
+        assertThat(next.familyId()).isEqualTo(first.familyId());
+        verify(dao, never()).find(any());
+    }
+
+    @Test
+    void reuse_revokesWholeFamily() {
+        RefreshHandle first = store.issue(userId);
+        RefreshHandle next = store.rotate(first.value(), userId, iat);
+
+        assertThatThrownBy(() -> store.rotate(first.value(), userId, iat))
+            .isInstanceOf(RefreshTokenRejectedException.class)
+            .extracting(ex -> ((RefreshTokenRejectedException) ex).reason())
+            .isEqualTo("reuse");
+        verify(dao).revokeFamily(eq(first.familyId()), eq(userId), any());
+        assertThat(registry.counter("auth.refresh.reuse").count()).isEqualTo(1.0);
+
+        assertThatThrownBy(() -> store.rotate(next.value(), userId, iat))
+            .isInstanceOf(RefreshTokenRejectedException.class)
+            .extracting(ex -> ((RefreshTokenRejectedException) ex).reason())
+            .isEqualTo("family_revoked");
+    }
+
+    @Test
+    void handleConsumedOnAnotherReplica_isReuse() {
+        RefreshHandle first = store.issue(userId);
+        // индекс этой реплики не знает о погашении — его отвергает условная запись в БД
+        when(dao.consume(any(), any(), any())).thenReturn(false);
+        when(dao.find(any())).thenReturn(Optional.of(
+            new StoredRefreshToken(first.familyId(), userId, Instant.now().plusSeconds(60), true, false)
+        ));
+
+        assertThatThrownBy(() -> store.rotate(first.value(), userId, iat))
+            .isInstanceOf(RefreshTokenRejectedException.class)
+            .extracting(ex -> ((RefreshTokenRejectedException) ex).reason())
+            .isEqualTo("reuse");
+        verify(dao).revokeFamily(eq(first.familyId()), eq(userId), any());
+    }
+
+    @Test
+    void userRejectedByDb_revokesFamily_withoutReuse() {
+        RefreshHandle first = store.issue(userId);
+        // снимок другой реплики устарел: пользователь сменил пароль или заблокирован — строка не погашена
+        when(dao.consume(any(), any(), any())).thenReturn(false);
+        when(dao.find(any())).thenReturn(Optional.of(
+            new StoredRefreshToken(first.familyId(), userId, Instant.now().plusSeconds(60), false, false)
+        ));
+
+        assertThatThrownBy(() -> store.rotate(first.value(), userId, iat))
+            .isInstanceOf(RefreshTokenRejectedException.class)
+            .extracting(ex -> ((RefreshTokenRejectedException) ex).reason())
+            .isEqualTo("user_rejected");
+        verify(dao).revokeFamily(eq(first.familyId()), eq(userId), any());
+        assertThat(registry.counter("auth.refresh.reuse").count()).isZero();
+    }
+
+    @Test
+    void consumeFailure_leavesHandleUsable() {
+        RefreshHandle first = store.issue(userId);
+        when(dao.consume(any(), any(), any())).thenThrow(new QueryTimeoutException("db down")).thenReturn(true);
+
+        assertThatThrownBy(() -> store.rotate(first.value(), userId, iat)).isInstanceOf(QueryTimeoutException.class);
+
+        assertThat(store.rotate(first.value(), userId, iat).familyId()).isEqualTo(first.familyId());
+        verify(dao, never()).revokeFamily(any(), any(), any());
+    }
+
+    @Test
+    void legacyToken_isExchangedOnce_andReplayRevokesItsFamily() {
+        Instant exp = Instant.now().plusSeconds(600);
+        RefreshHandle first = store.rotateLegacy("legacy.jwt.token", userId, iat, exp);
+
+        ArgumentCaptor<IssuedRefreshToken> consumed = ArgumentCaptor.forClass(IssuedRefreshToken.class);
+        verify(dao).consume(consumed.capture(), any(), eq(iat));
+        assertThat(consumed.getValue().familyId()).isEqualTo(first.familyId());
+        assertThat(consumed.getValue().expiresAt()).isEqualTo(exp);
+
+        when(dao.consume(any(), any(), any())).thenReturn(false);
+        when(dao.find(any())).thenReturn(Optional.of(new StoredRefreshToken(first.familyId(), userId, exp, true, false)));
+
+        assertThatThrownBy(() -> store.rotateLegacy("legacy.jwt.token", userId, iat, exp))
+            .isInstanceOf(RefreshTokenRejectedException.class)
+            .extracting(ex -> ((RefreshTokenRejectedException) ex).reason())
+            .isEqualTo("reuse");
+        verify(dao).revokeFamily(eq(first.familyId()), eq(userId), any());
+    }
+
+    @Test
+    void indexMiss_fallsBackToDb_once() {
+        UUID familyId = UUID.randomUUID();
+        when(dao.find(any())).thenReturn(Optional.of(
+            new StoredRefreshToken(familyId, userId, Instant.now().plusSeconds(60), false, false)
+        ));
+
+        RefreshHandle next = store.rotate("issued-by-another-replica", userId, iat);
+
+        assertThat(next.familyId()).isEqualTo(familyId);
+        assertThatThrownBy(() -> store.rotate("issued-by-another-replica", userId, iat))
+            .isInstanceOf(RefreshTokenRejectedException.class);
+        verify(dao, times(1)).find(any());
+    }
+
+    @Test
+    void unknownHandle_orOtherUser_isRejected() {
+        when(dao.find(any())).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> store.rotate("nope", userId, iat))
+            .isInstanceOf(RefreshTokenRejectedException.class);
+
+        RefreshHandle h = store.issue(userId);
+        assertThatThrownBy(() -> store.rotate(h.value(), UUID.randomUUID(), iat))
+            .isInstanceOf(RefreshTokenRejectedException.class);
+    }
+
+    @Test
+    void flush_pollsRevocationsFromOtherReplicas() {
+        RefreshHandle h = store.issue(userId);
+        when(dao.findFamiliesRevokedSince(any())).thenReturn(List.of(h.familyId()));
+
+        store.flush();
+
+        assertThatThrownBy(() -> store.rotate(h.value(), userId, iat))
+            .isInstanceOf(RefreshTokenRejectedException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_requeuesInsertsOnFailure() {
+        RefreshHandle first = store.issue(userId);
+        store.rotate(first.value(), userId, iat);
+
+        doThrow(new QueryTimeoutException("db down")).doNothing().when(dao).insertAll(anyList());
+        store.flush();
+        store.flush();
+
+        ArgumentCaptor<List<IssuedRefreshToken>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(dao, times(2)).insertAll(inserts.capture());
+        assertThat(inserts.getAllValues().get(1)).hasSize(2)
+            .extracting(IssuedRefreshToken::familyId)
+            .containsOnly(first.familyId());
+    }
+}
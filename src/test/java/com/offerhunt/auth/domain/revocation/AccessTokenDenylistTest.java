@@ -0,0 +1,94 @@
+package com.offerhunt.auth.domain.revocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.offerhunt.auth.domain.dao.AccessRevocationDao;
+import com.offerhunt.auth.domain.dao.AccessRevocationDao.StoredRevocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+class AccessTokenDenylistTest {
+
+    private final AccessRevocationDao dao = mock(AccessRevocationDao.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AccessTokenDenylist denylist = new AccessTokenDenylist(dao, registry, 1000, 0.01, Clock.systemUTC());
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void revokedJti_isRejected_othersPass() {
+        Instant exp = Instant.now().plusSeconds(600);
+        denylist.revokeToken("jti-1", exp);
+
+        assertThat(denylist.isRevoked(jwt("jti-1", Instant.now()))).isTrue();
+        assertThat(denylist.isRevoked(jwt("jti-2", Instant.now()))).isFalse();
+        verify(dao).upsert(eq("jti:jti-1"), isNull(), eq(exp), any());
+        assertThat(registry.counter("auth.access.revoked.rejected").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void revokedUser_rejectsOnlyTokensIssuedBefore() {
+        Instant before = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(5);
+        denylist.revokeUser(userId);
+        Instant after = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+
+        assertThat(denylist.isRevoked(jwt("a", before))).isTrue();
+        assertThat(denylist.isRevoked(jwt("b", after))).isFalse();
+    }
+
+    @Test
+    void alreadyExpiredToken_isNotStored() {
+        denylist.revokeToken("old", Instant.now().minusSeconds(1));
+
+        verify(dao, never()).upsert(any(), any(), any(), any());
+    }
+
+    @Test
+    void sync_appliesRevocationsFromOtherReplicas() {
+        Instant exp = Instant.now().plusSeconds(600);
+        when(dao.findSince(any(), any())).thenReturn(List.of(
+            new StoredRevocation("jti:remote", null, exp),
+            new StoredRevocation("user:" + userId, Instant.now(), exp)
+        ));
+
+        denylist.sync();
+
+        assertThat(denylist.isRevoked(jwt("remote", Instant.now().plusSeconds(60)))).isTrue();
+        assertThat(denylist.isRevoked(jwt("local", Instant.now().minusSeconds(60)))).isTrue();
+    }
+
+    @Test
+    void purge_keepsLiveRevocations_andDbFailureKeepsLocalState() {
+        doThrow(new QueryTimeoutException("db down")).when(dao).upsert(any(), any(), any(), any());
+        denylist.revokeToken("jti-1", Instant.now().plusSeconds(600));
+
+        denylist.purge();
+
+        assertThat(denylist.isRevoked(jwt("jti-1", Instant.now()))).isTrue();
+        verify(dao).deleteExpired(any());
+    }
+
+    private Jwt jwt(String jti, Instant issuedAt) {
+        return Jwt.withTokenValue("t")
+            .header("alg", "none")
+            .subject(userId.toString())
+            .jti(jti)
+            .issuedAt(issuedAt)
+            .expiresAt(issuedAt.plusSeconds(900))
+            .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.offerhunt.auth.domain.revocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void noFalseNegatives_andFalsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        String[] added = new String[10_000];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = UUID.randomUUID().toString();
+            filter.put(1, added[i]);
+        }
+        for (String s : added) {
+            assertThat(filter.mightContain(1, s)).isTrue();
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(1, UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void seedsSeparateKeyKinds() {
+        BloomFilter filter = new BloomFilter(100, 0.001);
+        filter.put(1, "same");
+
+        assertThat(filter.mightContain(1, "same")).isTrue();
+        assertThat(filter.mightContain(2, "same")).isFalse();
+    }
+}
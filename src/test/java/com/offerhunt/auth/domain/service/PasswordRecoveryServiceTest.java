@@ -1,13 +1,19 @@
 package com.offerhunt.auth.domain.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import com.offerhunt.auth.domain.dao.PasswordResetTokenRepo;
 import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.metrics.AuthStageRecorder;
 import com.offerhunt.auth.domain.model.PasswordResetToken;
 import com.offerhunt.auth.domain.model.UserEntity;
+import com.offerhunt.auth.domain.password.PasswordHasher;
+import com.offerhunt.auth.domain.revocation.AccessTokenDenylist;
+import com.offerhunt.auth.domain.status.UserStatusCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,6 +43,12 @@ class PasswordRecoveryServiceTest {
     @Mock
     PasswordResetTokenGenerator tokenGenerator;
 
+    @Mock
+    AccessTokenDenylist denylist;
+
+    @Mock
+    UserStatusCache statuses;
+
     PasswordRecoveryService service;
 
     @BeforeEach
@@ -44,9 +56,12 @@ class PasswordRecoveryServiceTest {
         service = new PasswordRecoveryService(
             userRepo,
             tokenRepo,
-            passwordEncoder,
+            new PasswordHasher(passwordEncoder, new SimpleMeterRegistry(), 1, 4, 5_000L),
             mailService,
             tokenGenerator,
+            new AuthStageRecorder(new SimpleMeterRegistry()),
+            denylist,
+            statuses,
             3600L,
             "http://localhost:3000/auth/reset-password"
         );
@@ -103,12 +118,42 @@ class PasswordRecoveryServiceTest {
 
         when(tokenRepo.findByTokenHash(tokenHash)).thenReturn(Optional.of(token));
         when(passwordEncoder.encode("NewPass1!")).thenReturn("ENC_HASH");
+        when(tokenRepo.resetPassword(eq(token.getId()), eq("ENC_HASH"), any(), any())).thenReturn(1);
 
         service.resetPassword(rawToken, "NewPass1!");
 
         verify(passwordEncoder).encode("NewPass1!");
-        verify(userRepo).save(user);
-        verify(tokenRepo).save(token);
+        ArgumentCaptor<Instant> changedAt = ArgumentCaptor.forClass(Instant.class);
+        verify(tokenRepo).resetPassword(eq(token.getId()), eq("ENC_HASH"), any(), changedAt.capture());
+        assertThat(changedAt.getValue().getNano()).isZero();
+        verify(userRepo, never()).save(any());
+        verify(statuses).invalidate(userId);
+        verify(denylist).revokeUser(userId);
+    }
+
+    @Test
+    void resetPassword_tokenUsedWhileHashing_throws() {
+        String rawToken = "RAW_TOKEN";
+        String tokenHash = TestHashUtil.sha256Hex(rawToken);
+        UserEntity user = new UserEntity(UUID.randomUUID(), "user@example.com", "old", "User");
+        PasswordResetToken token = new PasswordResetToken(
+            UUID.randomUUID(),
+            user,
+            tokenHash,
+            Instant.now().plusSeconds(3600),
+            "127.0.0.1",
+            "JUnit"
+        );
+
+        when(tokenRepo.findByTokenHash(tokenHash)).thenReturn(Optional.of(token));
+        when(passwordEncoder.encode("NewPass1!")).thenReturn("ENC_HASH");
+        // параллельный сброс тем же токеном успел первым
+        when(tokenRepo.resetPassword(any(), any(), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.resetPassword(rawToken, "NewPass1!"))
+            .isInstanceOf(PasswordRecoveryService.InvalidTokenException.class);
+        verify(statuses, never()).invalidate(any());
+        verify(denylist, never()).revokeUser(any());
     }
 
     @Test
@@ -0,0 +1,60 @@
+package com.offerhunt.auth.domain.status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.offerhunt.auth.domain.dao.UserRepo;
+import com.offerhunt.auth.domain.dao.UserStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class UserStatusCacheTest {
+
+    private final UserRepo repo = mock(UserRepo.class);
+    private final UserStatusCache cache = new UserStatusCache(repo, new SimpleMeterRegistry(), 100, 300);
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void loadsOnce_untilInvalidated() {
+        when(repo.findStatusById(userId))
+            .thenReturn(Optional.of(new UserStatus("USER", "ACTIVE", null)))
+            .thenReturn(Optional.of(new UserStatus("ADMIN", "ACTIVE", null)));
+
+        assertThat(cache.get(userId).role()).isEqualTo("USER");
+        assertThat(cache.get(userId).role()).isEqualTo("USER");
+        verify(repo, times(1)).findStatusById(userId);
+
+        cache.invalidate(userId);
+        assertThat(cache.get(userId).role()).isEqualTo("ADMIN");
+        verify(repo, times(2)).findStatusById(userId);
+    }
+
+    @Test
+    void rejectsTokensIssuedBeforePasswordChange() {
+        Instant changedAt = Instant.parse("2026-01-01T10:00:00Z");
+        when(repo.findStatusById(userId)).thenReturn(Optional.of(new UserStatus("USER", "ACTIVE", changedAt)));
+
+        UserStatusCache.Snapshot s = cache.get(userId);
+        assertThat(s.accepts(changedAt.minusSeconds(1))).isFalse();
+        assertThat(s.accepts(changedAt)).isTrue();
+        assertThat(s.accepts(changedAt.plusSeconds(60))).isTrue();
+    }
+
+    @Test
+    void inactiveOrMissingUser_acceptsNothing() {
+        UUID missing = UUID.randomUUID();
+        when(repo.findStatusById(userId)).thenReturn(Optional.of(new UserStatus("USER", "BLOCKED", null)));
+        when(repo.findStatusById(missing)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(userId).accepts(Instant.now())).isFalse();
+        assertThat(cache.get(missing).accepts(Instant.now())).isFalse();
+        cache.get(missing);
+        verify(repo, times(1)).findStatusById(missing);
+    }
+}
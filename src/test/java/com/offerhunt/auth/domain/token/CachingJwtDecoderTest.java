@@ -0,0 +1,108 @@
+package com.offerhunt.auth.domain.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+class CachingJwtDecoderTest {
+
+    private static final Instant START = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final AtomicLong elapsedNanos = new AtomicLong();
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return START.plusNanos(elapsedNanos.get());
+        }
+    };
+    private final AtomicInteger delegateCalls = new AtomicInteger();
+
+    @Test
+    void sameToken_isVerifiedOnce() {
+        var decoder = caching(token -> jwt(token, START.plusSeconds(900)));
+
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-a");
+        decoder.decode("token-b");
+
+        assertThat(second).isSameAs(first);
+        assertThat(delegateCalls).hasValue(2);
+    }
+
+    @Test
+    void entry_expiresAtTokenExp() {
+        var decoder = caching(token -> jwt(token, START.plusSeconds(900)));
+        decoder.decode("token-a");
+
+        advance(Duration.ofSeconds(899));
+        decoder.decode("token-a");
+        assertThat(delegateCalls).hasValue(1);
+
+        advance(Duration.ofSeconds(2));
+        decoder.decode("token-a");
+        assertThat(delegateCalls).hasValue(2);
+    }
+
+    @Test
+    void failures_areNotCached() {
+        var decoder = caching(token -> {
+            throw new BadJwtException("bad signature");
+        });
+
+        assertThatThrownBy(() -> decoder.decode("token-a")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("token-a")).isInstanceOf(BadJwtException.class);
+        assertThat(delegateCalls).hasValue(2);
+    }
+
+    @Test
+    void tokenWithoutExp_isNotCached() {
+        var decoder = caching(token -> jwt(token, null));
+
+        decoder.decode("token-a");
+        decoder.decode("token-a");
+
+        assertThat(delegateCalls).hasValue(2);
+    }
+
+    private CachingJwtDecoder caching(JwtDecoder delegate) {
+        JwtDecoder counting = token -> {
+            delegateCalls.incrementAndGet();
+            return delegate.decode(token);
+        };
+        return new CachingJwtDecoder(counting, 100, clock, elapsedNanos::get);
+    }
+
+    private void advance(Duration duration) {
+        elapsedNanos.addAndGet(duration.toNanos());
+    }
+
+    private static Jwt jwt(String token, Instant exp) {
+        return Jwt.withTokenValue(token)
+            .header("alg", "RS256")
+            .subject("user-1")
+            .issuedAt(START)
+            .expiresAt(exp)
+            .build();
+    }
+}
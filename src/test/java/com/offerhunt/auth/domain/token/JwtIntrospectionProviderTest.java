@@ -0,0 +1,150 @@
+package com.offerhunt.auth.domain.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.offerhunt.auth.domain.dao.ReferenceTokenDao;
+import com.offerhunt.auth.domain.revocation.AccessTokenDenylist;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+class JwtIntrospectionProviderTest {
+
+    private static final String ISSUER = "http://localhost:8080";
+
+    private final JWK key = SigningAlgorithm.ES256.generateKey("kid-1");
+    private final AtomicInteger keyLookups = new AtomicInteger();
+    private final JWKSource<SecurityContext> jwkSource = (selector, ctx) -> {
+        keyLookups.incrementAndGet();
+        return new ImmutableJWKSet<SecurityContext>(new JWKSet(key)).get(selector, ctx);
+    };
+    private final AccessTokenDenylist denylist = mock(AccessTokenDenylist.class);
+    private final OAuth2AuthorizationService authorizations = mock(OAuth2AuthorizationService.class);
+    private final ReferenceTokenStore referenceTokens =
+        new ReferenceTokenStore(mock(ReferenceTokenDao.class), new SimpleMeterRegistry(), 100);
+    private final JwtIntrospectionProvider provider = new JwtIntrospectionProvider(
+        jwkSource, ISSUER, "offerhunt-api", authorizations, referenceTokens, denylist, 100, Duration.ofSeconds(30));
+    private final TokenMinter minter = new TokenMinter(key, ISSUER, "offerhunt-api");
+    private final OAuth2ClientAuthenticationToken client = new OAuth2ClientAuthenticationToken(
+        RegisteredClient.withId("1")
+            .clientId("legacy")
+            .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+            .build(),
+        ClientAuthenticationMethod.CLIENT_SECRET_BASIC,
+        "secret"
+    );
+
+    @Test
+    void accessToken_isActive_andAnsweredFromCacheOnRepeat() {
+        UUID userId = UUID.randomUUID();
+        String token = minter.access(userId, "ADMIN", "jti-1", Instant.now());
+
+        OAuth2TokenIntrospection first = introspect(token);
+        int lookups = keyLookups.get();
+        OAuth2TokenIntrospection second = introspect(token);
+
+        assertThat(first.isActive()).isTrue();
+        assertThat(first.getSubject()).isEqualTo(userId.toString());
+        assertThat(first.getId()).isEqualTo("jti-1");
+        assertThat(first.getScopes()).containsExactly("api");
+        assertThat(first.getAudience()).containsExactly("offerhunt-api");
+        assertThat(first.getClaims()).containsEntry("role", "ADMIN");
+        assertThat(second).isSameAs(first);
+        assertThat(keyLookups.get()).isEqualTo(lookups);
+    }
+
+    @Test
+    void revokedAfterCaching_isInactive() {
+        String token = minter.access(UUID.randomUUID(), "USER", "jti-2", Instant.now());
+        assertThat(introspect(token).isActive()).isTrue();
+
+        when(denylist.isRevoked(any(), any(), any())).thenReturn(true);
+
+        assertThat(introspect(token).isActive()).isFalse();
+    }
+
+    @Test
+    void refreshAndForgedTokens_areInactive() {
+        String refresh = minter.refresh(UUID.randomUUID(), "USER", "handle", Instant.now());
+        String forged = new TokenMinter(SigningAlgorithm.ES256.generateKey("kid-1"), ISSUER, "offerhunt-api")
+            .access(UUID.randomUUID(), "ADMIN", "jti", Instant.now());
+
+        assertThat(introspect(refresh).isActive()).isFalse();
+        assertThat(introspect(forged).isActive()).isFalse();
+    }
+
+    @Test
+    void authorizationServerTokens_areLeftToAuthorizationServer() {
+        // client_credentials: аудитория — client_id
+        String clientToken = new TokenMinter(key, ISSUER, "offerhunt-gateway")
+            .access(UUID.randomUUID(), "USER", "jti-3", Instant.now());
+        String sasToken = minter.access(UUID.randomUUID(), "USER", "jti-4", Instant.now());
+        when(authorizations.findByToken(eq(sasToken), eq(OAuth2TokenType.ACCESS_TOKEN)))
+            .thenReturn(mock(OAuth2Authorization.class));
+
+        for (String token : new String[] {clientToken, sasToken}) {
+            var request = new OAuth2TokenIntrospectionAuthenticationToken(token, client, null, null);
+            assertThat(provider.authenticate(request)).isNull();
+        }
+    }
+
+    @Test
+    void referenceToken_isActive_untilRevoked() {
+        UUID userId = UUID.randomUUID();
+        UUID jti = UUID.randomUUID();
+        String token = referenceTokens.issue(userId, "ADMIN", jti, Instant.now());
+
+        OAuth2TokenIntrospection claims = introspect(token);
+
+        assertThat(claims.isActive()).isTrue();
+        assertThat(claims.getSubject()).isEqualTo(userId.toString());
+        assertThat(claims.getId()).isEqualTo(jti.toString());
+        assertThat(claims.getScopes()).containsExactly("api");
+        assertThat(claims.getAudience()).containsExactly("offerhunt-api");
+        assertThat(claims.getClaims()).containsEntry("role", "ADMIN");
+
+        when(denylist.isRevoked(any(), any(), any())).thenReturn(true);
+
+        assertThat(introspect(token).isActive()).isFalse();
+    }
+
+    @Test
+    void unknownReferenceToken_isLeftToAuthorizationServer() {
+        var request = new OAuth2TokenIntrospectionAuthenticationToken("AAAAAAAAAAAAAAAAAAAAAA", client, null, null);
+
+        assertThat(provider.authenticate(request)).isNull();
+    }
+
+    @Test
+    void opaqueToken_isLeftToAuthorizationServer() {
+        var request = new OAuth2TokenIntrospectionAuthenticationToken("opaque-token", client, null, null);
+
+        assertThat(provider.authenticate(request)).isNull();
+    }
+
+    private OAuth2TokenIntrospection introspect(String token) {
+        var request = new OAuth2TokenIntrospectionAuthenticationToken(token, client, null, null);
+        return ((OAuth2TokenIntrospectionAuthenticationToken) provider.authenticate(request)).getTokenClaims();
+    }
+}
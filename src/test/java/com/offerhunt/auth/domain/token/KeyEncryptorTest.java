@@ -0,0 +1,46 @@
+package com.offerhunt.auth.domain.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.security.SecureRandom;
+import org.junit.jupiter.api.Test;
+
+class KeyEncryptorTest {
+
+    private final KeyEncryptor encryptor = new KeyEncryptor(randomKey());
+
+    @Test
+    void roundTrip_withFreshIvEachTime() {
+        byte[] first = encryptor.encrypt("{\"kty\":\"OKP\"}", "kid-1");
+        byte[] second = encryptor.encrypt("{\"kty\":\"OKP\"}", "kid-1");
+
+        assertThat(first).isNotEqualTo(second);
+        assertThat(encryptor.decrypt(first, "kid-1")).isEqualTo("{\"kty\":\"OKP\"}");
+    }
+
+    @Test
+    void decrypt_failsForOtherKid_orTamperedData_orOtherMasterKey() {
+        byte[] data = encryptor.encrypt("secret", "kid-1");
+
+        assertThatThrownBy(() -> encryptor.decrypt(data, "kid-2")).isInstanceOf(IllegalStateException.class);
+
+        byte[] tampered = data.clone();
+        tampered[tampered.length - 1] ^= 1;
+        assertThatThrownBy(() -> encryptor.decrypt(tampered, "kid-1")).isInstanceOf(IllegalStateException.class);
+
+        assertThatThrownBy(() -> new KeyEncryptor(randomKey()).decrypt(data, "kid-1"))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void masterKey_mustBeAes256() {
+        assertThatThrownBy(() -> new KeyEncryptor(new byte[16])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+}
@@ -0,0 +1,66 @@
+package com.offerhunt.auth.domain.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.offerhunt.auth.domain.dao.ReferenceTokenDao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+class ReferenceTokenJwtDecoderTest {
+
+    private final JwtDecoder jwtDecoder = mock(JwtDecoder.class);
+    private final ReferenceTokenDao dao = mock(ReferenceTokenDao.class);
+    private final ReferenceTokenStore store = new ReferenceTokenStore(dao, new SimpleMeterRegistry(), 100);
+    private final ReferenceTokenJwtDecoder decoder =
+        new ReferenceTokenJwtDecoder(jwtDecoder, store, "http://localhost:8080", "offerhunt-api");
+
+    @Test
+    void reference_becomesJwtWithMintedClaims() {
+        UUID userId = UUID.randomUUID();
+        UUID jti = UUID.randomUUID();
+        Instant now = Instant.now();
+        String token = store.issue(userId, "USER", jti, now);
+
+        Jwt jwt = decoder.decode(token);
+
+        assertThat(jwt.getTokenValue()).isEqualTo(token);
+        assertThat(jwt.getSubject()).isEqualTo(userId.toString());
+        assertThat(jwt.getId()).isEqualTo(jti.toString());
+        assertThat(jwt.getClaimAsString("role")).isEqualTo("USER");
+        assertThat(jwt.getClaimAsString("scope")).isEqualTo("api");
+        assertThat(jwt.getAudience()).containsExactly("offerhunt-api");
+        assertThat(jwt.getIssuedAt()).isEqualTo(Instant.ofEpochSecond(now.getEpochSecond()));
+        verifyNoInteractions(jwtDecoder);
+    }
+
+    @Test
+    void jwt_goesToDelegate() {
+        decoder.decode("a.b.c");
+        verify(jwtDecoder).decode("a.b.c");
+    }
+
+    @Test
+    void unknownReference_isBadToken_butDbFailureIsNot() {
+        when(dao.find(any())).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> decoder.decode("AAAAAAAAAAAAAAAAAAAAAA")).isInstanceOf(BadJwtException.class);
+
+        when(dao.find(any())).thenThrow(new QueryTimeoutException("timeout"));
+        assertThatThrownBy(() -> decoder.decode("AAAAAAAAAAAAAAAAAAAAAA"))
+            .isInstanceOf(JwtException.class)
+            .isNotInstanceOf(BadJwtException.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.offerhunt.auth.domain.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.offerhunt.auth.domain.dao.ReferenceTokenDao;
+import com.offerhunt.auth.domain.dao.ReferenceTokenDao.StoredReferenceToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
+
+class ReferenceTokenStoreTest {
+
+    private final Instant now = Instant.parse("2026-01-01T10:00:00Z");
+    private final Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+    private final ReferenceTokenDao dao = mock(ReferenceTokenDao.class);
+    private final UUID userId = UUID.randomUUID();
+    private final UUID jti = UUID.randomUUID();
+
+    private ReferenceTokenStore store() {
+        return new ReferenceTokenStore(dao, new SimpleMeterRegistry(), 100, clock);
+    }
+
+    @Test
+    void issuedToken_hasFixedWidth_andResolvesFromMemory() {
+        ReferenceTokenStore store = store();
+
+        String token = store.issue(userId, "ADMIN", jti, now);
+
+        assertThat(token).hasSize(ReferenceTokenStore.TOKEN_LENGTH).doesNotContain(".");
+        ReferenceTokenStore.Reference ref = store.resolve(token).orElseThrow();
+        assertThat(ref.userId()).isEqualTo(userId);
+        assertThat(ref.jti()).isEqualTo(jti);
+        assertThat(ref.role()).isEqualTo("ADMIN");
+        assertThat(ref.expiresAt()).isEqualTo(now.getEpochSecond() + TokenMinter.ACCESS_TTL_SECONDS);
+        verify(dao).insert(any(), any());
+        verify(dao, never()).find(any());
+    }
+
+    @Test
+    void otherReplica_resolvesFromDb_onceThenFromMemory() {
+        String token = store().issue(userId, "USER", jti, now);
+        ArgumentCaptor<byte[]> hash = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<StoredReferenceToken> stored = ArgumentCaptor.forClass(StoredReferenceToken.class);
+        verify(dao).insert(hash.capture(), stored.capture());
+        when(dao.find(hash.getValue())).thenReturn(Optional.of(stored.getValue()));
+
+        ReferenceTokenStore replica = store();
+        assertThat(replica.resolve(token)).map(ReferenceTokenStore.Reference::userId).contains(userId);
+        assertThat(replica.resolve(token)).isPresent();
+        verify(dao, times(1)).find(any());
+    }
+
+    @Test
+    void expiredUnknownOrMalformedTokens_doNotResolve() {
+        when(dao.find(any())).thenReturn(Optional.of(new StoredReferenceToken(
+            jti, userId, "USER", now.minusSeconds(1000), now.minusSeconds(100)
+        )));
+        ReferenceTokenStore store = store();
+
+        assertThat(store.resolve("AAAAAAAAAAAAAAAAAAAAAA")).isEmpty();
+        assertThat(store.resolve("!!!!!!!!!!!!!!!!!!!!!!")).isEmpty();
+        assertThat(store.resolve("eyJhbGciOiJSUzI1NiJ9.e30.sig")).isEmpty();
+        verify(dao, times(1)).find(any());
+    }
+
+    @Test
+    void insertWithoutRow_failsIssue() {
+        doThrow(new JdbcUpdateAffectedIncorrectNumberOfRowsException("INSERT", 1, 0))
+            .when(dao).insert(any(), any());
+
+        assertThatThrownBy(() -> store().issue(userId, "USER", jti, now))
+            .isInstanceOf(JdbcUpdateAffectedIncorrectNumberOfRowsException.class);
+    }
+}
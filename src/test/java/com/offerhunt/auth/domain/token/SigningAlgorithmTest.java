@@ -0,0 +1,77 @@
+package com.offerhunt.auth.domain.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+
+class SigningAlgorithmTest {
+
+    @ParameterizedTest
+    @EnumSource(SigningAlgorithm.class)
+    void mintedToken_verifiesWithMatchingDecoder(SigningAlgorithm algorithm) {
+        JWK key = algorithm.generateKey("test");
+        var jwkSource = new ImmutableJWKSet<>(new JWKSet(key));
+
+        String token = mint(new SingleKeyJwtEncoder(key), algorithm);
+        Jwt jwt = JwtDecoderFactory.create(jwkSource, algorithm).decode(token);
+
+        assertThat(jwt.getSubject()).isEqualTo("user-1");
+        assertThat(jwt.getHeaders()).containsEntry("alg", algorithm.jwsAlgorithm().getName());
+        assertThat(jwt.getHeaders()).containsEntry("kid", "test");
+    }
+
+    @Test
+    void decoder_rejectsTokenSignedWithOtherAlgorithm() {
+        JWK rsa = SigningAlgorithm.RS256.generateKey("rsa");
+        JWK ec = SigningAlgorithm.ES256.generateKey("ec");
+        var jwkSource = new ImmutableJWKSet<>(new JWKSet(List.of(rsa, ec)));
+
+        String rsaToken = mint(new SingleKeyJwtEncoder(rsa), SigningAlgorithm.RS256);
+        JwtDecoder esOnly = JwtDecoderFactory.create(jwkSource, SigningAlgorithm.ES256);
+
+        assertThatThrownBy(() -> esOnly.decode(rsaToken)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void encoder_refusesHeaderForOtherAlgorithm() {
+        var encoder = new SingleKeyJwtEncoder(SigningAlgorithm.ES256.generateKey("ec"));
+
+        assertThatThrownBy(() -> mint(encoder, SigningAlgorithm.RS256)).isInstanceOf(JwtEncodingException.class);
+    }
+
+    @Test
+    void from_acceptsAliases() {
+        assertThat(SigningAlgorithm.from("es256")).isEqualTo(SigningAlgorithm.ES256);
+        assertThat(SigningAlgorithm.from("EdDSA")).isEqualTo(SigningAlgorithm.EDDSA);
+        assertThat(SigningAlgorithm.from("Ed25519")).isEqualTo(SigningAlgorithm.EDDSA);
+        assertThatThrownBy(() -> SigningAlgorithm.from("HS256")).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static String mint(JwtEncoder encoder, SigningAlgorithm algorithm) {
+        Instant now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+            .issuer("http://localhost:8080")
+            .subject("user-1")
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(60))
+            .build();
+        var header = JwsHeader.with(algorithm.jwsHeaderAlgorithm()).build();
+        return encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+}
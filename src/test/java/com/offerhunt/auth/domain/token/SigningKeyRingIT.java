@@ -0,0 +1,43 @@
+package com.offerhunt.auth.domain.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.offerhunt.auth.domain.dao.SigningKeyDao;
+import com.offerhunt.auth.support.PostgresTCBase;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SigningKeyRingIT extends PostgresTCBase {
+
+    @Autowired SigningKeyRing keyRing;
+    @Autowired SigningKeyDao dao;
+    @Autowired SigningAlgorithm signingAlgorithm;
+    @Autowired JdbcTemplate jdbc;
+    @Value("${app.security.key-ring.master-key}") String masterKey;
+
+    @Test
+    void activeKey_isStoredEncrypted_andSharedWithAnotherReplica() {
+        String kid = keyRing.activeKey().getKeyID();
+
+        byte[] stored = jdbc.queryForObject(
+            "SELECT private_jwk_enc FROM auth.auth_signing_keys WHERE kid = ?", byte[].class, kid);
+        String privateExponent = keyRing.activeKey().toJSONObject().get("d").toString();
+        assertThat(new String(stored)).doesNotContain(privateExponent);
+
+        // вторая «реплика» с тем же мастер-ключом стартует без генерации
+        SigningKeyRing replica = new SigningKeyRing(
+            dao, signingAlgorithm, masterKey, 30, 60, 31);
+        replica.init();
+
+        assertThat(replica.activeKey().getKeyID()).isEqualTo(kid);
+        assertThat(dao.findLive(Instant.now())).hasSize(1);
+        assertThat(replica.activeKey().toPublicJWK()).isEqualTo(keyRing.activeKey().toPublicJWK());
+    }
+}
@@ -0,0 +1,185 @@
+package com.offerhunt.auth.domain.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.offerhunt.auth.domain.dao.SigningKeyDao;
+import com.offerhunt.auth.domain.dao.SigningKeyDao.StoredSigningKey;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+class SigningKeyRingTest {
+
+    private static final Duration ROTATE_AFTER = Duration.ofDays(30);
+    private static final Duration PUBLISH_AHEAD = Duration.ofHours(1);
+    private static final Duration RETENTION = Duration.ofDays(10);
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+    private final InMemorySigningKeyDao dao = new InMemorySigningKeyDao();
+    private final KeyEncryptor encryptor = new KeyEncryptor(masterKey());
+
+    @Test
+    void firstStart_createsActiveKey_andPublishesOnlyPublicPart() {
+        SigningKeyRing ring = ring(SigningAlgorithm.ES256);
+
+        assertThat(dao.keys).hasSize(1);
+        assertThat(ring.activeKey().isPrivate()).isTrue();
+        assertThat(ring.activeAlgorithm()).isEqualTo(SigningAlgorithm.ES256);
+        assertThat(published(ring)).singleElement().satisfies(k -> {
+            assertThat(k.getKeyID()).isEqualTo(ring.activeKey().getKeyID());
+            assertThat(k.isPrivate()).isFalse();
+        });
+    }
+
+    @Test
+    void secondReplica_reusesStoredKey_andVerifiesTokensOfFirst() {
+        SigningKeyRing first = ring(SigningAlgorithm.EDDSA);
+        SigningKeyRing second = ring(SigningAlgorithm.EDDSA);
+
+        assertThat(dao.keys).hasSize(1);
+        assertThat(second.activeKey().getKeyID()).isEqualTo(first.activeKey().getKeyID());
+
+        String token = new TokenMinter(first::activeKey, "http://localhost:8080", "api")
+            .access(UUID.randomUUID(), "USER", "jti", Instant.now());
+        Jwt jwt = JwtDecoderFactory.create(second).decode(token);
+        assertThat(jwt.getHeaders()).containsEntry("kid", first.activeKey().getKeyID());
+    }
+
+    @Test
+    void rotation_prepublishesNextKey_thenSwitches_thenRetiresOld() {
+        SigningKeyRing ring = ring(SigningAlgorithm.RS256);
+        String oldKid = ring.activeKey().getKeyID();
+
+        advance(ROTATE_AFTER);
+        ring.refresh();
+
+        assertThat(ring.activeKey().getKeyID()).isEqualTo(oldKid);
+        assertThat(published(ring)).hasSize(2);
+
+        advance(PUBLISH_AHEAD);
+        ring.refresh();
+
+        String newKid = ring.activeKey().getKeyID();
+        assertThat(newKid).isNotEqualTo(oldKid);
+        assertThat(published(ring)).extracting(JWK::getKeyID).containsExactlyInAnyOrder(oldKid, newKid);
+
+        advance(RETENTION);
+        ring.refresh();
+
+        assertThat(published(ring)).extracting(JWK::getKeyID).containsExactly(newKid);
+    }
+
+    @Test
+    void algorithmChange_rotatesWhileOldTokensStayVerifiable() {
+        SigningKeyRing rsa = ring(SigningAlgorithm.RS256);
+        String rsaToken = new TokenMinter(rsa::activeKey, "http://localhost:8080", "api")
+            .access(UUID.randomUUID(), "USER", "jti", Instant.now());
+
+        SigningKeyRing ec = ring(SigningAlgorithm.ES256);
+        assertThat(ec.activeAlgorithm()).isEqualTo(SigningAlgorithm.RS256);
+
+        advance(PUBLISH_AHEAD);
+        ec.refresh();
+
+        assertThat(ec.activeAlgorithm()).isEqualTo(SigningAlgorithm.ES256);
+        assertThat(JwtDecoderFactory.create(ec).decode(rsaToken).getSubject()).isNotNull();
+    }
+
+    private SigningKeyRing ring(SigningAlgorithm algorithm) {
+        var ring = new SigningKeyRing(dao, algorithm, encryptor, ROTATE_AFTER, PUBLISH_AHEAD, RETENTION, clock);
+        ring.init();
+        return ring;
+    }
+
+    private void advance(Duration duration) {
+        now.updateAndGet(t -> t.plus(duration));
+    }
+
+    private static List<JWK> published(SigningKeyRing ring) {
+        return ring.get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+    }
+
+    private static byte[] masterKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    /** Та же семантика, что у SQL в {@link SigningKeyDao}, без Postgres. */
+    private static final class InMemorySigningKeyDao extends SigningKeyDao {
+
+        final List<StoredSigningKey> keys = new ArrayList<>();
+
+        InMemorySigningKeyDao() {
+            super(null, null);
+        }
+
+        @Override
+        public synchronized List<StoredSigningKey> findLive(Instant now) {
+            return keys.stream()
+                .filter(k -> k.expiresAt() == null || k.expiresAt().isAfter(now))
+                .sorted(Comparator.comparing(StoredSigningKey::activatesAt).reversed())
+                .toList();
+        }
+
+        @Override
+        public synchronized void inRotationLock(Runnable action) {
+            action.run();
+        }
+
+        @Override
+        public synchronized void insert(StoredSigningKey key) {
+            keys.add(key);
+        }
+
+        @Override
+        public synchronized int retireOthers(String kid, Instant expiresAt) {
+            int updated = 0;
+            for (int i = 0; i < keys.size(); i++) {
+                StoredSigningKey k = keys.get(i);
+                if (!k.kid().equals(kid) && k.expiresAt() == null) {
+                    keys.set(i, new StoredSigningKey(k.kid(), k.algorithm(), k.publicJwk(),
+                        k.encryptedPrivateJwk(), k.createdAt(), k.activatesAt(), expiresAt));
+                    updated++;
+                }
+            }
+            return updated;
+        }
+
+        @Override
+        public synchronized int deleteExpired(Instant now) {
+            int before = keys.size();
+            keys.removeIf(k -> k.expiresAt() != null && !k.expiresAt().isAfter(now));
+            return before - keys.size();
+        }
+    }
+}
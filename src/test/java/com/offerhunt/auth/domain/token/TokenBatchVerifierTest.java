@@ -0,0 +1,81 @@
+package com.offerhunt.auth.domain.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.offerhunt.auth.domain.token.TokenBatchVerifier.Result;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+class TokenBatchVerifierTest {
+
+    private static final Instant EXP = Instant.parse("2030-01-01T00:00:00Z");
+
+    // "good-<sub>" — валидный токен, "boom" — сбой декодера, всё остальное отклоняется
+    private final JwtDecoder decoder = token -> {
+        if (token.equals("boom")) {
+            throw new IllegalStateException("revocation store unavailable");
+        }
+        if (!token.startsWith("good-")) {
+            throw new BadJwtException("bad signature");
+        }
+        return Jwt.withTokenValue(token)
+            .header("alg", "none")
+            .subject(token.substring(5))
+            .claim("role", "USER")
+            .expiresAt(EXP)
+            .build();
+    };
+    private final TokenBatchVerifier verifier = new TokenBatchVerifier(decoder, new SimpleMeterRegistry(), 3, 2, 1);
+
+    @AfterEach
+    void tearDown() {
+        verifier.shutdown();
+    }
+
+    @Test
+    void resultsFollowInputOrder_withPerTokenOutcome() {
+        List<Result> results = verifier.verify(Arrays.asList("good-a", "forged", null)).stream()
+            .map(CompletableFuture::join)
+            .toList();
+
+        assertThat(results.get(0)).isEqualTo(new Result(0, true, "a", "USER", EXP.getEpochSecond(), null));
+        assertThat(results.get(1).active()).isFalse();
+        assertThat(results.get(1).error()).contains("bad signature");
+        assertThat(results.get(2)).isEqualTo(new Result(2, false, null, null, null, "empty token"));
+    }
+
+    @Test
+    void decoderFailure_isInactiveResult_notFailedFuture() {
+        List<CompletableFuture<Result>> results = verifier.verify(List.of("good-a", "boom"));
+
+        assertThat(results.get(0).join().active()).isTrue();
+        assertThat(results.get(1).join()).isEqualTo(new Result(1, false, null, null, null, "verification failed"));
+    }
+
+    @Test
+    void batchLargerThanLimit_orEmpty_isRejected() {
+        assertThatThrownBy(() -> verifier.verify(List.of("a", "b", "c", "d")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> verifier.verify(List.of()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void saturatedPool_runsInCallerInsteadOfRejecting() {
+        List<CompletableFuture<Result>> all = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            all.addAll(verifier.verify(List.of("good-x", "good-y", "good-z")));
+        }
+        assertThat(all).allSatisfy(f -> assertThat(f.join().active()).isTrue());
+    }
+}
@@ -0,0 +1,73 @@
+package com.offerhunt.auth.domain.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+class TokenMinterTest {
+
+    private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @ParameterizedTest
+    @EnumSource(SigningAlgorithm.class)
+    void accessToken_carriesFixedAndPerUserClaims(SigningAlgorithm algorithm) {
+        JWK key = algorithm.generateKey("kid-1");
+        var minter = new TokenMinter(key, "http://localhost:8080", "offerhunt-api");
+        UUID userId = UUID.randomUUID();
+
+        Jwt jwt = decoder(key, algorithm).decode(minter.access(userId, "ADMIN", "access-jti", NOW));
+
+        assertThat(jwt.getHeaders()).containsEntry("alg", algorithm.jwsAlgorithm().getName());
+        assertThat(jwt.getHeaders()).containsEntry("kid", "kid-1");
+        assertThat(jwt.getClaimAsString("iss")).isEqualTo("http://localhost:8080");
+        assertThat(jwt.getAudience()).containsExactly("offerhunt-api");
+        assertThat(jwt.getSubject()).isEqualTo(userId.toString());
+        assertThat(jwt.getClaimAsString("scope")).isEqualTo("api");
+        assertThat(jwt.getClaimAsString("role")).isEqualTo("ADMIN");
+        assertThat(jwt.getIssuedAt()).isEqualTo(NOW);
+        assertThat(jwt.getExpiresAt()).isEqualTo(NOW.plusSeconds(TokenMinter.ACCESS_TTL_SECONDS));
+        assertThat(jwt.hasClaim("typ")).isFalse();
+        assertThat(jwt.getId()).isEqualTo("access-jti");
+    }
+
+    @Test
+    void refreshToken_isTypedAndLongLived() {
+        JWK key = SigningAlgorithm.ES256.generateKey("kid-1");
+        var minter = new TokenMinter(key, "http://localhost:8080", "offerhunt-api");
+        UUID userId = UUID.fromString("00000000-0000-000a-0000-00000000000f");
+
+        Jwt jwt = decoder(key, SigningAlgorithm.ES256).decode(minter.refresh(userId, "USER", "h4nDle_-x", NOW));
+
+        assertThat(jwt.getSubject()).isEqualTo("00000000-0000-000a-0000-00000000000f");
+        assertThat(jwt.getClaimAsString("typ")).isEqualTo("refresh");
+        assertThat(jwt.getId()).isEqualTo("h4nDle_-x");
+        assertThat(jwt.getAudience()).isNull();
+        assertThat(jwt.getExpiresAt()).isEqualTo(NOW.plusSeconds(TokenMinter.REFRESH_TTL_SECONDS));
+    }
+
+    @Test
+    void audienceAndRole_areJsonEscaped() {
+        JWK key = SigningAlgorithm.RS256.generateKey("kid-1");
+        var minter = new TokenMinter(key, "http://localhost:8080", "api\"x");
+
+        String token = minter.access(UUID.randomUUID(), "a\"b\\c", "jti", NOW);
+        Jwt jwt = decoder(key, SigningAlgorithm.RS256).decode(token);
+
+        assertThat(jwt.getAudience()).containsExactly("api\"x");
+        assertThat(jwt.getClaimAsString("role")).isEqualTo("a\"b\\c");
+    }
+
+    private static JwtDecoder decoder(JWK key, SigningAlgorithm algorithm) {
+        return JwtDecoderFactory.create(new ImmutableJWKSet<>(new JWKSet(key)), algorithm);
+    }
+}
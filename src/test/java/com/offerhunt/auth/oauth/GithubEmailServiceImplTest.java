@@ -0,0 +1,216 @@
+package com.offerhunt.auth.oauth;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.offerhunt.auth.config.RestClientConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.client.RestClient;
+
+class GithubEmailServiceImplTest {
+
+    @RegisterExtension
+    static WireMockExtension github = WireMockExtension.newInstance()
+        .options(wireMockConfig().dynamicPort())
+        .build();
+
+    private final RestClientConfig config = new RestClientConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OAuth2User user = new DefaultOAuth2User(
+        List.of(new SimpleGrantedAuthority("OAUTH2_USER")), Map.of("login", "octocat"), "login"
+    );
+
+    private final OAuth2User githubUser = new DefaultOAuth2User(
+        List.of(new SimpleGrantedAuthority("OAUTH2_USER")), Map.of("login", "octocat", "id", 583231), "login"
+    );
+    private final AtomicLong elapsedNanos = new AtomicLong();
+
+    private CircuitBreaker circuitBreaker;
+    private GithubEmailServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        RestClient restClient = config.githubRestClient(RestClient.builder(), github.baseUrl(), 1_000, 1_000);
+        circuitBreaker = config.githubCircuitBreaker(meterRegistry, 4, 4, 50, 5_000, 60_000);
+        // фоновое обновление выполняется синхронно — тесты видят его результат сразу
+        service = new GithubEmailServiceImpl(
+            restClient, circuitBreaker, meterRegistry, 100, 3_600, 600, elapsedNanos::get, Runnable::run
+        );
+    }
+
+    @Test
+    void picksPrimaryVerifiedEmail_withBearerToken() {
+        github.stubFor(get("/user/emails").willReturn(okJson("""
+            [
+              {"email": "old@example.com", "primary": false, "verified": true},
+              {"email": "octo@example.com", "primary": true, "verified": true}
+            ]
+            """)));
+
+        GithubEmailService.GithubEmail email = service.resolveEmail(user, authorizedClient());
+
+        assertThat(email).isEqualTo(new GithubEmailService.GithubEmail("octo@example.com", true));
+        github.verify(getRequestedFor(urlEqualTo("/user/emails"))
+            .withHeader("Authorization", equalTo("Bearer gho_token")));
+    }
+
+    @Test
+    void slowGithub_isCutOffByReadTimeout() {
+        github.stubFor(get("/user/emails").willReturn(okJson("[]").withFixedDelay(5_000)));
+
+        long started = System.nanoTime();
+        GithubEmailService.GithubEmail email = service.resolveEmail(user, authorizedClient());
+
+        assertThat(email).isNull();
+        assertThat((System.nanoTime() - started) / 1_000_000).isLessThan(3_000);
+    }
+
+    @Test
+    void failingGithub_opensCircuit_andLaterLoginsSkipTheCall() {
+        github.stubFor(get("/user/emails").willReturn(aResponse().withStatus(502)));
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(service.resolveEmail(user, authorizedClient())).isNull();
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThat(service.resolveEmail(user, authorizedClient())).isNull();
+        github.verify(4, getRequestedFor(urlEqualTo("/user/emails")));
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.state")
+            .tags("name", "github", "state", "open").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void rejectedToken_doesNotCountAgainstGithub() {
+        github.stubFor(get("/user/emails").willReturn(aResponse().withStatus(403)));
+
+        for (int i = 0; i < 6; i++) {
+            assertThat(service.resolveEmail(user, authorizedClient())).isNull();
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void emailFromProfile_skipsTheCall() {
+        OAuth2User withEmail = new DefaultOAuth2User(
+            List.of(new SimpleGrantedAuthority("OAUTH2_USER")),
+            Map.of("login", "octocat", "email", "public@example.com"),
+            "login"
+        );
+
+        assertThat(service.resolveEmail(withEmail, authorizedClient()))
+            .isEqualTo(new GithubEmailService.GithubEmail("public@example.com", false));
+        github.verify(0, getRequestedFor(urlEqualTo("/user/emails")));
+    }
+
+    @Test
+    void repeatLogin_isServedFromCache() {
+        github.stubFor(get("/user/emails").willReturn(okJson("""
+            [{"email": "octo@example.com", "primary": true, "verified": true}]
+            """)));
+
+        assertThat(service.resolveEmail(githubUser, authorizedClient()))
+            .isEqualTo(new GithubEmailService.GithubEmail("octo@example.com", true, false));
+        assertThat(service.resolveEmail(githubUser, authorizedClient()))
+            .isEqualTo(new GithubEmailService.GithubEmail("octo@example.com", true, true));
+
+        github.verify(1, getRequestedFor(urlEqualTo("/user/emails")));
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "auth.github.emails", "result", "hit")
+            .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void staleEntry_isServedAndRefreshedInBackground() {
+        github.stubFor(get("/user/emails").willReturn(okJson("""
+            [{"email": "old@example.com", "primary": true, "verified": true}]
+            """)));
+        service.resolveEmail(githubUser, authorizedClient());
+
+        github.stubFor(get("/user/emails").willReturn(okJson("""
+            [{"email": "new@example.com", "primary": true, "verified": true}]
+            """)));
+        elapsedNanos.addAndGet(TimeUnit.SECONDS.toNanos(601));
+
+        assertThat(service.resolveEmail(githubUser, authorizedClient()).email()).isEqualTo("old@example.com");
+        assertThat(service.resolveEmail(githubUser, authorizedClient()).email()).isEqualTo("new@example.com");
+        github.verify(2, getRequestedFor(urlEqualTo("/user/emails")));
+    }
+
+    @Test
+    void expiredEntry_isFetchedAgain() {
+        github.stubFor(get("/user/emails").willReturn(okJson("""
+            [{"email": "octo@example.com", "primary": true, "verified": true}]
+            """)));
+        service.resolveEmail(githubUser, authorizedClient());
+        elapsedNanos.addAndGet(TimeUnit.SECONDS.toNanos(3_601));
+
+        assertThat(service.resolveEmail(githubUser, authorizedClient()).cached()).isFalse();
+        github.verify(2, getRequestedFor(urlEqualTo("/user/emails")));
+    }
+
+    @Test
+    void failedLookup_isNotCached() {
+        github.stubFor(get("/user/emails").willReturn(aResponse().withStatus(502)));
+        assertThat(service.resolveEmail(githubUser, authorizedClient())).isNull();
+
+        github.stubFor(get("/user/emails").willReturn(okJson("""
+            [{"email": "octo@example.com", "primary": true, "verified": true}]
+            """)));
+        assertThat(service.resolveEmail(githubUser, authorizedClient()).email()).isEqualTo("octo@example.com");
+    }
+
+    @Test
+    void refreshEmail_replacesCachedValue() {
+        github.stubFor(get("/user/emails").willReturn(okJson("""
+            [{"email": "old@example.com", "primary": true, "verified": true}]
+            """)));
+        service.resolveEmail(githubUser, authorizedClient());
+        github.stubFor(get("/user/emails").willReturn(okJson("""
+            [{"email": "new@example.com", "primary": true, "verified": false}]
+            """)));
+
+        service.refreshEmail(githubUser, authorizedClient());
+
+        assertThat(service.resolveEmail(githubUser, authorizedClient()))
+            .isEqualTo(new GithubEmailService.GithubEmail("new@example.com", false, true));
+        assertThat(meterRegistry.get("auth.github.emails.refresh").tag("reason", "mismatch").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    private static OAuth2AuthorizedClient authorizedClient() {
+        ClientRegistration registration = ClientRegistration.withRegistrationId("github")
+            .clientId("client")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .redirectUri("http://localhost/login/oauth2/code/github")
+            .authorizationUri("https://github.com/login/oauth/authorize")
+            .tokenUri("https://github.com/login/oauth/access_token")
+            .build();
+        OAuth2AccessToken token = new OAuth2AccessToken(
+            OAuth2AccessToken.TokenType.BEARER, "gho_token", Instant.now(), Instant.now().plusSeconds(60)
+        );
+        return new OAuth2AuthorizedClient(registration, "octocat", token);
+    }
+}
@@ -2,6 +2,8 @@ package com.offerhunt.auth.oauth;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -58,7 +60,7 @@ class OAuth2LoginSuccessHandlerTest {
         UUID userId = UUID.randomUUID();
         TokenResponse token = new TokenResponse("Bearer", "access123", 900, "refresh123");
         when(ssoLoginService.login(any(SsoLoginService.SsoProfile.class)))
-            .thenReturn(new LoginResult(token, false));
+            .thenReturn(new LoginResult(token, false, "user@example.com"));
 
         var oauthUser = new DefaultOAuth2User(
             List.of(new SimpleGrantedAuthority("ROLE_USER")),
@@ -85,4 +87,29 @@ class OAuth2LoginSuccessHandlerTest {
         assertThat(body).contains("\"access_token\":\"access123\"");
         assertThat(body).contains("\"refresh_token\":\"refresh123\"");
     }
-}
\ No newline at end of file
+
+    @Test
+    void githubCachedEmail_disagreeingWithLink_isRefreshed() throws Exception {
+        TokenResponse token = new TokenResponse("Bearer", "access123", 900, "refresh123");
+        when(ssoLoginService.login(any(SsoLoginService.SsoProfile.class)))
+            .thenReturn(new LoginResult(token, false, "new@example.com"));
+
+        var oauthUser = new DefaultOAuth2User(
+            List.of(new SimpleGrantedAuthority("ROLE_USER")),
+            Map.of("login", "octocat", "id", 583231),
+            "login"
+        );
+        when(githubEmailService.resolveEmail(eq(oauthUser), any()))
+            .thenReturn(new GithubEmailService.GithubEmail("old@example.com", true, true));
+
+        var auth = new OAuth2AuthenticationToken(oauthUser, oauthUser.getAuthorities(), "github");
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+
+        handler.onAuthenticationSuccess(req, resp, auth);
+
+        assertThat(resp.getStatus()).isEqualTo(200);
+        verify(githubEmailService).refreshEmail(eq(oauthUser), any());
+    }
+}